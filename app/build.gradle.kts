@@ -16,6 +16,13 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Room выгружает JSON-схему каждой версии базы; файлы хранятся в репозитории
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments += mapOf("room.schemaLocation" to "$projectDir/schemas")
+            }
+        }
     }
 
     buildTypes {
@@ -33,6 +40,23 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+    testOptions {
+        // Robolectric-тесты Room работают с настоящим SQLite
+        unitTests.isIncludeAndroidResources = true
+        // Замеры (категория Benchmark) долгие и печатают результаты: только с -Pbenchmarks
+        unitTests.all {
+            if (project.hasProperty("benchmarks")) {
+                it.testLogging.showStandardStreams = true
+            } else {
+                it.useJUnit { excludeCategories("com.artem.finalproject.Benchmark") }
+            }
+        }
+    }
+    sourceSets {
+        // MigrationTestHelper читает выгруженные схемы из assets тестов
+        getByName("test").assets.srcDir("$projectDir/schemas")
     }
 }
 
@@ -50,7 +74,6 @@ dependencies {
     implementation(libs.retrofit.gson)
     implementation(libs.gson)
     implementation(libs.okhttp)
-    implementation(libs.okhttp.logging)
     
     // Room для базы данных
     implementation(libs.room.runtime)
@@ -65,6 +88,9 @@ dependencies {
     implementation(libs.glide)
     
     testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
+    testImplementation(libs.room.testing)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
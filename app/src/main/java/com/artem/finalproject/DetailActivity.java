@@ -10,24 +10,17 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.core.content.IntentCompat;
 
-import com.artem.finalproject.database.AppDatabase;
-import com.artem.finalproject.database.entity.FavoriteArticle;
 import com.artem.finalproject.models.Article;
+import com.artem.finalproject.repository.FavoritesIndex;
+import com.artem.finalproject.utils.DateFormatter;
 import com.artem.finalproject.utils.PreferencesHelper;
 import com.bumptech.glide.Glide;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
-
 /**
  * Активность для детального просмотра новости
  */
@@ -45,10 +38,8 @@ public class DetailActivity extends AppCompatActivity {
     private MaterialToolbar toolbar;
     private BottomNavigationView bottomNavigation;
     
-    private AppDatabase database;
-    private ExecutorService executorService;
     private PreferencesHelper preferencesHelper;
-    private AtomicBoolean isFavorite = new AtomicBoolean(false);
+    private FavoritesIndex favoritesIndex;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,7 +47,7 @@ public class DetailActivity extends AppCompatActivity {
         setContentView(R.layout.activity_detail);
         
         // Получаем переданную новость
-        article = (Article) getIntent().getSerializableExtra("article");
+        article = IntentCompat.getParcelableExtra(getIntent(), "article", Article.class);
         if (article == null) {
             Toast.makeText(this, "Error: news not found", Toast.LENGTH_SHORT).show();
             finish();
@@ -87,9 +78,6 @@ public class DetailActivity extends AppCompatActivity {
         fabFavorite = findViewById(R.id.fabFavorite);
         toolbar = findViewById(R.id.toolbar);
         bottomNavigation = findViewById(R.id.bottomNavigation);
-        
-        database = AppDatabase.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
     }
     
     private void setupToolbar() {
@@ -138,7 +126,7 @@ public class DetailActivity extends AppCompatActivity {
         
         // Дата
         if (article.getPublishedAt() != null) {
-            detailDateTextView.setText(formatDate(article.getPublishedAt()));
+            detailDateTextView.setText(DateFormatter.formatAbsolute(article));
         }
         
         // Автор
@@ -179,13 +167,10 @@ public class DetailActivity extends AppCompatActivity {
     }
     
     private void checkFavoriteStatus() {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = database.favoriteArticleDao().getByUrl(article.getUrl());
-            boolean favoriteStatus = favorite != null;
-            isFavorite.set(favoriteStatus);
-            
-            runOnUiThread(() -> updateFavoriteButton(favoriteStatus));
-        });
+        // Состояние берется из индекса в памяти и обновляется, если избранное меняют в другом месте
+        favoritesIndex = FavoritesIndex.getInstance(this);
+        updateFavoriteButton(favoritesIndex.isFavorite(article.getUrl()));
+        favoritesIndex.observe().observe(this, urls -> updateFavoriteButton(urls.contains(article.getUrl())));
     }
     
     private void updateFavoriteButton(boolean isFavorite) {
@@ -199,65 +184,14 @@ public class DetailActivity extends AppCompatActivity {
     private void setupListeners() {
         // FAB избранного
         fabFavorite.setOnClickListener(v -> {
-            boolean newFavoriteState = !isFavorite.get();
-            isFavorite.set(newFavoriteState);
-            updateFavoriteButton(newFavoriteState);
-            
-            if (newFavoriteState) {
-                saveToFavorites();
-            } else {
-                removeFromFavorites();
-            }
-        });
-    }
-    
-    private void saveToFavorites() {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = new FavoriteArticle();
-            favorite.setTitle(article.getTitle());
-            favorite.setDescription(article.getDescription());
-            favorite.setUrl(article.getUrl());
-            favorite.setUrlToImage(article.getUrlToImage());
-            favorite.setAuthor(article.getAuthor());
-            favorite.setPublishedAt(article.getPublishedAt());
-            if (article.getSource() != null) {
-                favorite.setSourceName(article.getSource().getName());
-            }
-            
-            database.favoriteArticleDao().insert(favorite);
-            runOnUiThread(() -> {
-                Toast.makeText(this, "Added to favorites", Toast.LENGTH_SHORT).show();
-            });
-        });
-    }
-    
-    private void removeFromFavorites() {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = database.favoriteArticleDao().getByUrl(article.getUrl());
-            if (favorite != null) {
-                database.favoriteArticleDao().delete(favorite);
-            }
-            runOnUiThread(() -> {
-                Toast.makeText(this, "Removed from favorites", Toast.LENGTH_SHORT).show();
-            });
+            boolean newFavoriteState = !favoritesIndex.isFavorite(article.getUrl());
+            favoritesIndex.setFavorite(article, newFavoriteState);
+            Toast.makeText(this, newFavoriteState ? "Added to favorites" : "Removed from favorites",
+                    Toast.LENGTH_SHORT).show();
         });
     }
     
     
-    private String formatDate(String dateString) {
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm", Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            if (date != null) {
-                return outputFormat.format(date);
-            }
-        } catch (ParseException e) {
-            e.printStackTrace();
-        }
-        return dateString;
-    }
-    
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == android.R.id.home) {
@@ -273,12 +207,4 @@ public class DetailActivity extends AppCompatActivity {
         super.onBackPressed();
         overridePendingTransition(R.anim.slide_out_left, R.anim.slide_in_right);
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
@@ -12,17 +12,19 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.WriteBehindQueue;
 import com.artem.finalproject.database.entity.FavoriteArticle;
 import com.artem.finalproject.models.Article;
+import com.artem.finalproject.repository.FavoritesIndex;
 import com.artem.finalproject.ui.adapter.LatestAdapter;
+import com.artem.finalproject.utils.AppExecutors;
 import com.artem.finalproject.utils.PreferencesHelper;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
 
 /**
  * Активность для просмотра избранных новостей
@@ -37,7 +39,8 @@ public class FavoritesActivity extends AppCompatActivity {
     private BottomNavigationView bottomNavigation;
     
     private AppDatabase database;
-    private ExecutorService executorService;
+    private WriteBehindQueue writeQueue;
+    private Executor dbExecutor;
     private PreferencesHelper preferencesHelper;
     
     @Override
@@ -67,7 +70,8 @@ public class FavoritesActivity extends AppCompatActivity {
         bottomNavigation = findViewById(R.id.bottomNavigation);
         
         database = AppDatabase.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
+        writeQueue = WriteBehindQueue.getInstance(this);
+        dbExecutor = AppExecutors.getInstance().diskIO();
         articles = new ArrayList<>();
     }
     
@@ -81,6 +85,7 @@ public class FavoritesActivity extends AppCompatActivity {
     
     private void setupRecyclerView() {
         latestAdapter = new LatestAdapter();
+        latestAdapter.setFavoritesIndex(FavoritesIndex.getInstance(this));
         latestAdapter.setArticles(articles);
         favoritesRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         favoritesRecyclerView.setAdapter(latestAdapter);
@@ -129,7 +134,9 @@ public class FavoritesActivity extends AppCompatActivity {
     }
     
     private void loadFavorites() {
-        executorService.execute(() -> {
+        dbExecutor.execute(() -> {
+            // Переключение на экране статьи могло еще ждать в WriteBehindQueue
+            writeQueue.flushNow();
             List<FavoriteArticle> favorites = database.favoriteArticleDao().getAll();
             
             // Конвертируем FavoriteArticle в Article
@@ -155,7 +162,6 @@ public class FavoritesActivity extends AppCompatActivity {
             runOnUiThread(() -> {
                 articles = articleList;
                 latestAdapter.setArticles(articles);
-                latestAdapter.notifyDataSetChanged();
                 
                 // Показываем/скрываем пустое состояние
                 if (articles.isEmpty()) {
@@ -172,15 +178,8 @@ public class FavoritesActivity extends AppCompatActivity {
     }
     
     private void removeFromFavorites(Article article) {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = database.favoriteArticleDao().getByUrl(article.getUrl());
-            if (favorite != null) {
-                database.favoriteArticleDao().delete(favorite);
-            }
-            
-            // Перезагружаем список
-            loadFavorites();
-        });
+        // Перезагружаем список, когда удаление записано в базу
+        FavoritesIndex.getInstance(this).setFavorite(article, false, this::loadFavorites);
     }
     
     @Override
@@ -205,12 +204,4 @@ public class FavoritesActivity extends AppCompatActivity {
         // Обновляем список при возврате на экран
         loadFavorites();
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
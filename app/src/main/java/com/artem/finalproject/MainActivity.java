@@ -24,19 +24,28 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.graphics.Insets;
+import androidx.core.widget.NestedScrollView;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import com.artem.finalproject.api.ApiClient;
+import com.artem.finalproject.api.ApiError;
 import com.artem.finalproject.api.NewsApiService;
+import com.artem.finalproject.api.RequestBudget;
+import com.artem.finalproject.api.RequestManager;
 import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.WriteBehindQueue;
 import com.artem.finalproject.database.entity.FavoriteArticle;
 import com.artem.finalproject.models.Article;
 import com.artem.finalproject.models.NewsResponse;
+import com.artem.finalproject.repository.FavoritesIndex;
+import com.artem.finalproject.repository.NewsRepository;
+import com.artem.finalproject.repository.SearchSuggestions;
 import com.artem.finalproject.ui.adapter.NewsAdapter;
 import com.artem.finalproject.ui.adapter.TrendingAdapter;
 import com.artem.finalproject.ui.adapter.LatestAdapter;
+import com.artem.finalproject.utils.AppExecutors;
 import com.artem.finalproject.utils.NotificationHelper;
 import com.artem.finalproject.utils.PreferencesHelper;
 import com.google.android.material.textfield.TextInputEditText;
@@ -44,10 +53,11 @@ import com.google.android.material.textfield.TextInputEditText;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -72,6 +82,7 @@ public class MainActivity extends AppCompatActivity {
     private ProgressBar progressBar;
     private TextView errorTextView;
     private com.google.android.material.bottomnavigation.BottomNavigationView bottomNavigation;
+    private NestedScrollView mainScrollView;
     
     // Адаптеры и данные
     private TrendingAdapter trendingAdapter;
@@ -83,15 +94,45 @@ public class MainActivity extends AppCompatActivity {
     private PreferencesHelper preferencesHelper;
     private NotificationHelper notificationHelper;
     private AppDatabase database;
-    private ExecutorService executorService;
+    private Executor dbExecutor;
     private Handler mainHandler;
     
     // API
     private NewsApiService apiService;
+    private NewsRepository newsRepository;
+    private RequestManager requestManager;
+    private RequestBudget requestBudget;
+    private boolean showingCachedNews;
     // ВАЖНО: Получите бесплатный API ключ на https://newsapi.org/ и замените значение ниже
     // См. инструкцию в файле API_KEY_SETUP.md
     private static final String API_KEY = "YOUR_API_KEY_HERE"; // Замените на свой API ключ от NewsAPI
     
+    // Лента (категория, топ или поиск): новый запрос отменяет предыдущий
+    private static final String REQUEST_FEED = "feed";
+    private static final String REQUEST_FEED_PAGE = "feed_page";
+    
+    // Постраничная загрузка: маленькая первая страница для быстрого показа, остальные - при прокрутке.
+    // При малом остатке лимита RequestBudget укрупняет страницы; размер фиксируется на всю ленту
+    private static final int FEED_PAGE_SIZE = 20;
+    private static final int MAX_FEED_RESULTS = 100; // бесплатный тариф NewsAPI отдает не больше 100 результатов
+    private static final int LOAD_MORE_THRESHOLD_PX = 800;
+    private static final int TRENDING_COUNT = 5;
+    
+    /**
+     * Запрос одной страницы текущей ленты
+     */
+    private interface PageRequest {
+        Call<NewsResponse> create(int page, int pageSize);
+    }
+    
+    private NewsRepository.FeedCursor feedCursor;
+    private PageRequest feedPageRequest;
+    private int feedPageSize = FEED_PAGE_SIZE;
+    private int nextFeedPage;
+    private boolean loadingNextPage;
+    private boolean feedHasMore;
+    private final Set<String> feedUrls = new HashSet<>();
+    
     // Категории новостей
     private static final String[] CATEGORIES = {
         "general", "business", "entertainment", "health", "science", "sports", "technology"
@@ -168,15 +209,19 @@ public class MainActivity extends AppCompatActivity {
         progressBar = findViewById(R.id.progressBar);
         errorTextView = findViewById(R.id.errorTextView);
         bottomNavigation = findViewById(R.id.bottomNavigation);
+        mainScrollView = findViewById(R.id.mainScrollView);
     }
     
     private void initUtils() {
         preferencesHelper = new PreferencesHelper(this);
         notificationHelper = new NotificationHelper(this);
         database = AppDatabase.getInstance(this);
-        executorService = Executors.newFixedThreadPool(2);
+        dbExecutor = AppExecutors.getInstance().diskIO();
         mainHandler = new Handler(Looper.getMainLooper());
-        apiService = ApiClient.getApiService();
+        apiService = ApiClient.getApiService(this);
+        newsRepository = NewsRepository.getInstance(this);
+        requestBudget = RequestBudget.getInstance(this);
+        requestManager = new RequestManager("main");
         trendingArticles = new ArrayList<>();
         latestArticles = new ArrayList<>();
     }
@@ -184,6 +229,7 @@ public class MainActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         // Latest новости (вертикальный список)
         latestAdapter = new LatestAdapter();
+        latestAdapter.setFavoritesIndex(FavoritesIndex.getInstance(this));
         latestAdapter.setArticles(latestArticles);
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setOrientation(LinearLayoutManager.VERTICAL);
@@ -319,79 +365,211 @@ public class MainActivity extends AppCompatActivity {
     
     private void loadCategoryNews(String category) {
         showProgress(true);
+        showingCachedNews = false;
+        PageRequest pages = (page, pageSize) -> apiService.getTopHeadlines(category, API_KEY, pageSize, "us", page);
+        int size = startFeed(NewsRepository.headlinesKey(category), pages);
         
-        executorService.execute(() -> {
-            Call<NewsResponse> call = apiService.getTopHeadlines(
-                    category,
-                    API_KEY,
-                    50,
-                    "us"
-            );
-            
-            call.enqueue(new Callback<NewsResponse>() {
-                @Override
-                public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
-                    mainHandler.post(() -> {
+        newsRepository.load(
+                requestManager,
+                REQUEST_FEED,
+                feedCursor,
+                () -> pages.create(1, size),
+                new NewsRepository.StreamingListener() {
+                    @Override
+                    public void onCached(List<Article> articles) {
                         showProgress(false);
-                        
-                        if (response.isSuccessful() && response.body() != null) {
-                            NewsResponse newsResponse = response.body();
-                            if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
-                                List<Article> allArticles = newsResponse.getArticles();
-                                if (allArticles != null && !allArticles.isEmpty()) {
-                                    android.util.Log.d("NewsAPI", "Category articles loaded: " + allArticles.size());
-                                    
-                                    // Разделяем на Trending (первые 5) и Latest (максимум 20)
-                                    int trendingCount = Math.min(5, allArticles.size());
-                                    trendingArticles = new ArrayList<>(allArticles.subList(0, trendingCount));
-                                    if (allArticles.size() > trendingCount) {
-                                        // Ограничиваем Latest до 20 карточек
-                                        int latestStart = trendingCount;
-                                        int latestEnd = Math.min(latestStart + 20, allArticles.size());
-                                        latestArticles = new ArrayList<>(allArticles.subList(latestStart, latestEnd));
-                                    } else {
-                                        latestArticles = new ArrayList<>();
+                        displayArticles(articles);
+                        showingCachedNews = true;
+                    }
+                    
+                    @Override
+                    public void onArticle(Article article, int index) {
+                        showStreamedArticle(article, index);
+                    }
+                    
+                    @Override
+                    public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            
+                            if (response.isSuccessful() && response.body() != null) {
+                                NewsResponse newsResponse = response.body();
+                                if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
+                                    List<Article> allArticles = newsResponse.getArticles();
+                                    if (allArticles != null && !allArticles.isEmpty()) {
+                                        android.util.Log.d("NewsAPI", "Category articles loaded: " + allArticles.size());
+                                        displayArticles(allArticles);
                                     }
-                                    
-                                    android.util.Log.d("NewsAPI", "Category - Trending: " + trendingArticles.size() + ", Latest: " + latestArticles.size());
-                                    
-                                    trendingAdapter.setArticles(trendingArticles);
-                                    trendingAdapter.notifyDataSetChanged();
-                                    latestAdapter.setArticles(latestArticles);
-                                    latestAdapter.notifyDataSetChanged();
-                                    
-                                    // Принудительно запрашиваем перерисовку RecyclerView для правильного измерения
-                                    trendingRecyclerView.post(() -> {
-                                        trendingRecyclerView.requestLayout();
-                                    });
-                                    newsRecyclerView.post(() -> {
-                                        newsRecyclerView.requestLayout();
-                                    });
-                                    
-                                    // Показываем оба RecyclerView
-                                    trendingRecyclerView.setVisibility(View.VISIBLE);
-                                    newsRecyclerView.setVisibility(View.VISIBLE);
-                                    
-                                    errorTextView.setVisibility(View.GONE);
                                 }
+                            } else {
+                                showLoadError(ApiError.fromResponse(response).getMessage());
                             }
+                        });
+                    }
+                    
+                    @Override
+                    public void onFailure(Call<NewsResponse> call, Throwable t) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            showLoadError(ApiError.fromThrowable(t).getMessage());
+                        });
+                    }
+                });
+    }
+    
+    /**
+     * Статья первой страницы, пока ответ сети еще разбирается. Если кэша на экране нет,
+     * карточки Trending появляются по одной, не дожидаясь остальных статей;
+     * полный ответ затем показывает displayArticles.
+     */
+    private void showStreamedArticle(Article article, int index) {
+        if (showingCachedNews || index >= TRENDING_COUNT) {
+            return;
+        }
+        if (index == 0) {
+            trendingArticles = new ArrayList<>();
+            showProgress(false);
+            trendingRecyclerView.setVisibility(View.VISIBLE);
+        }
+        trendingArticles.add(article);
+        trendingAdapter.setArticles(trendingArticles);
+    }
+    
+    /**
+     * Показывает первую страницу ленты: первые 5 статей в Trending, остальные в Latest.
+     * Следующие страницы дописываются в Latest через appendPage.
+     */
+    private void displayArticles(List<Article> allArticles) {
+        int trendingCount = Math.min(TRENDING_COUNT, allArticles.size());
+        trendingArticles = new ArrayList<>(allArticles.subList(0, trendingCount));
+        latestArticles = new ArrayList<>(allArticles.subList(trendingCount, allArticles.size()));
+        
+        // Первая страница (из кэша или из сети) начинает ленту заново
+        feedUrls.clear();
+        for (Article article : allArticles) {
+            feedUrls.add(article.getUrl());
+        }
+        nextFeedPage = 2;
+        loadingNextPage = false;
+        feedHasMore = allArticles.size() >= feedPageSize && allArticles.size() < MAX_FEED_RESULTS;
+        requestManager.cancel(REQUEST_FEED_PAGE);
+        
+        android.util.Log.d("NewsAPI", "Trending: " + trendingArticles.size() + ", Latest: " + latestArticles.size());
+        
+        // Адаптеры сами вычисляют разницу и обновляют только измененные строки
+        trendingAdapter.setArticles(trendingArticles);
+        latestAdapter.setArticles(latestArticles);
+        
+        // Показываем оба RecyclerView
+        trendingRecyclerView.setVisibility(View.VISIBLE);
+        newsRecyclerView.setVisibility(View.VISIBLE);
+        
+        errorTextView.setVisibility(View.GONE);
+        progressBar.setVisibility(View.GONE);
+    }
+    
+    
+    /**
+     * Начать новую ленту: сбрасываем пагинацию и отменяем загрузку страницы старой ленты.
+     * Размер страницы выбирается один раз, чтобы смещения страниц не пересекались
+     * @return размер страницы этой ленты
+     */
+    private int startFeed(String cacheKey, PageRequest pages) {
+        requestManager.cancel(REQUEST_FEED_PAGE);
+        feedPageSize = requestBudget.adjustPageSize(FEED_PAGE_SIZE);
+        feedCursor = new NewsRepository.FeedCursor(cacheKey, feedPageSize);
+        feedPageRequest = pages;
+        nextFeedPage = 2;
+        loadingNextPage = false;
+        feedHasMore = false;
+        return feedPageSize;
+    }
+    
+    /**
+     * Подгрузить следующую страницу, когда пользователь докрутил до конца списка
+     */
+    private void loadNextPage() {
+        if (loadingNextPage || !feedHasMore || feedPageRequest == null) {
+            return;
+        }
+        loadingNextPage = true;
+        int page = nextFeedPage;
+        int size = feedPageSize;
+        PageRequest pages = feedPageRequest;
+        
+        // Страница берется из кэша ленты, а если он закончился - из сети
+        newsRepository.loadMore(
+                requestManager,
+                REQUEST_FEED_PAGE,
+                feedCursor,
+                () -> pages.create(page, size),
+                new NewsRepository.Listener() {
+                    @Override
+                    public void onCached(List<Article> articles) {
+                        appendPage(page, articles);
+                    }
+                    
+                    @Override
+                    public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+                        NewsResponse body = response.body();
+                        if (response.isSuccessful() && body != null && body.getArticles() != null) {
+                            appendPage(page, body.getArticles());
+                        } else {
+                            // Например, бесплатный тариф не отдает страницы дальше 100 результатов
+                            android.util.Log.w("NewsAPI", "Page " + page + ": " + ApiError.fromResponse(response));
+                            stopPaging(page);
                         }
-                    });
-                }
-                
-                @Override
-                public void onFailure(Call<NewsResponse> call, Throwable t) {
-                    mainHandler.post(() -> {
-                        showProgress(false);
-                        showError("Ошибка загрузки новостей");
-                    });
-                }
-            });
-        });
+                    }
+                    
+                    @Override
+                    public void onFailure(Call<NewsResponse> call, Throwable t) {
+                        android.util.Log.w("NewsAPI", "Page " + page + ": " + ApiError.fromThrowable(t));
+                        stopPaging(page);
+                    }
+                });
+    }
+    
+    /**
+     * Дописать страницу в Latest; запоздавший ответ для уже добавленной страницы игнорируется
+     */
+    private void appendPage(int page, List<Article> articles) {
+        if (page != nextFeedPage) {
+            return;
+        }
+        nextFeedPage++;
+        loadingNextPage = false;
+        
+        // Пока листали, новости могли сдвинуться между страницами - убираем повторы
+        List<Article> added = new ArrayList<>();
+        for (Article article : articles) {
+            if (feedUrls.add(article.getUrl())) {
+                added.add(article);
+            }
+        }
+        latestArticles.addAll(added);
+        latestAdapter.addArticles(added);
+        
+        feedHasMore = articles.size() >= feedPageSize && page * feedPageSize < MAX_FEED_RESULTS;
     }
     
+    private void stopPaging(int page) {
+        if (page == nextFeedPage) {
+            loadingNextPage = false;
+            feedHasMore = false;
+        }
+    }
     
     private void setupListeners() {
+        // Подгрузка следующей страницы у конца ленты
+        mainScrollView.setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener)
+                (v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
+                    View content = v.getChildAt(0);
+                    if (scrollY > oldScrollY && content != null
+                            && content.getBottom() - (v.getHeight() + scrollY) < LOAD_MORE_THRESHOLD_PX) {
+                        loadNextPage();
+                    }
+                });
+        
         // Поиск при нажатии Enter
         searchEditText.setOnEditorActionListener((v, actionId, event) -> {
             String query = searchEditText.getText().toString().trim();
@@ -478,150 +656,78 @@ public class MainActivity extends AppCompatActivity {
         }
         
         showProgress(true);
+        showingCachedNews = false;
         String category = "general"; // Категория по умолчанию
+        PageRequest pages = (page, pageSize) -> apiService.getTopHeadlines(category, API_KEY, pageSize, "us", page);
+        int size = startFeed(NewsRepository.headlinesKey(category), pages);
         
-        executorService.execute(() -> {
-            Call<NewsResponse> call = apiService.getTopHeadlines(
-                    category,
-                    API_KEY,
-                    50,
-                    "us"
-            );
-            
-            call.enqueue(new Callback<NewsResponse>() {
-                @Override
-                public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
-                    mainHandler.post(() -> {
+        newsRepository.load(
+                requestManager,
+                REQUEST_FEED,
+                feedCursor,
+                () -> pages.create(1, size),
+                new NewsRepository.StreamingListener() {
+                    @Override
+                    public void onCached(List<Article> articles) {
                         showProgress(false);
-                        
-                        // Проверка типа контента
-                        String contentType = response.headers().get("Content-Type");
-                        if (contentType != null && contentType.contains("text/html")) {
-                            android.util.Log.e("NewsAPI", "Received HTML instead of JSON!");
-                            showError("Error: API returned HTML instead of JSON\n\n" +
-                                    "This means:\n" +
-                                    "1. API key is invalid or expired\n" +
-                                    "2. Request is blocked by protection\n\n" +
-                                    "Check API key at https://newsapi.org/account");
-                            return;
-                        }
-                        
-                        if (response.isSuccessful() && response.body() != null) {
-                            NewsResponse newsResponse = response.body();
-                            android.util.Log.d("NewsAPI", "Response status: " + newsResponse.getStatus());
-                            android.util.Log.d("NewsAPI", "Total results: " + newsResponse.getTotalResults());
-                            
-                            // Логируем полный JSON ответ для просмотра формата данных
-                            try {
-                                com.google.gson.Gson gson = new com.google.gson.GsonBuilder().setPrettyPrinting().create();
-                                String jsonResponse = gson.toJson(newsResponse);
-                                android.util.Log.d("NewsAPI", "Full JSON Response:\n" + jsonResponse);
-                            } catch (Exception e) {
-                                android.util.Log.e("NewsAPI", "Error logging JSON", e);
-                            }
+                        displayArticles(articles);
+                        showingCachedNews = true;
+                    }
+                    
+                    @Override
+                    public void onArticle(Article article, int index) {
+                        showStreamedArticle(article, index);
+                    }
+                    
+                    @Override
+                    public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
                             
-                            // Проверка статуса ответа
-                            if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
-                                List<Article> allArticles = newsResponse.getArticles();
-                                if (allArticles != null && !allArticles.isEmpty()) {
-                                    android.util.Log.d("NewsAPI", "Articles loaded: " + allArticles.size());
-                                    
-                                    // Разделяем на Trending (первые 5) и Latest (максимум 20)
-                                    int trendingCount = Math.min(5, allArticles.size());
-                                    trendingArticles = new ArrayList<>(allArticles.subList(0, trendingCount));
-                                    // Ограничиваем Latest до 20 карточек
-                                    int latestStart = trendingCount;
-                                    int latestEnd = Math.min(latestStart + 20, allArticles.size());
-                                    latestArticles = new ArrayList<>(allArticles.subList(latestStart, latestEnd));
-                                    
-                                    android.util.Log.d("NewsAPI", "Trending: " + trendingArticles.size() + ", Latest: " + latestArticles.size());
-                                    
-                                    trendingAdapter.setArticles(trendingArticles);
-                                    trendingAdapter.notifyDataSetChanged();
-                                    latestAdapter.setArticles(latestArticles);
-                                    latestAdapter.notifyDataSetChanged();
-                                    
-                                    // Принудительно запрашиваем перерисовку RecyclerView для правильного измерения
-                                    newsRecyclerView.post(() -> {
-                                        newsRecyclerView.requestLayout();
-                                    });
-                                    
-                                    errorTextView.setVisibility(View.GONE);
-                                    trendingRecyclerView.setVisibility(View.VISIBLE);
-                                    newsRecyclerView.setVisibility(View.VISIBLE);
-                                    progressBar.setVisibility(View.GONE);
-                                    
-                                    // Показываем уведомление
-                                    if (preferencesHelper.isNotificationsEnabled()) {
-                                        notificationHelper.showNotification(
-                                                "New news",
-                                                "Loaded " + allArticles.size() + " news",
-                                                null
-                                        );
-                                    }
-                                } else {
-                                    android.util.Log.w("NewsAPI", "Articles list is null or empty");
-                                    showError("No news found for category: " + category);
-                                }
-                            } else {
-                                android.util.Log.e("NewsAPI", "API returned error status: " + newsResponse.getStatus());
-                                showError("API Error: " + (newsResponse.getStatus() != null ? newsResponse.getStatus() : "unknown"));
-                            }
-                        } else {
-                            String errorMessage = "Error loading news (code: " + response.code() + ")";
-                            if (response.code() == 401) {
-                                errorMessage = "Error: Invalid API key!\n\nCheck the key in MainActivity.java";
-                            } else if (response.code() == 429) {
-                                errorMessage = "Request limit exceeded.\nTry again later.";
-                            } else if (response.errorBody() != null) {
-                                try {
-                                    String errorBody = response.errorBody().string();
-                                    android.util.Log.e("NewsAPI", "Error response: " + errorBody);
-                                    
-                                    // Проверка на HTML ответ (Cloudflare защита)
-                                    if (errorBody.contains("<!DOCTYPE html") || errorBody.contains("<html") || errorBody.contains("Just a moment")) {
-                                        errorMessage = "Error: API returned HTML instead of JSON\n\n" +
-                                                "Possible reasons:\n" +
-                                                "1. API key is invalid or expired\n" +
-                                                "2. Request is blocked by protection\n" +
-                                                "3. Connection problem\n\n" +
-                                                "Check API key at https://newsapi.org/account";
-                                    } else if (errorBody.contains("apiKey") || errorBody.contains("Invalid API key")) {
-                                        errorMessage = "Error: API key problem\n\n" + errorBody;
-                                    } else if (errorBody.contains("rateLimit")) {
-                                        errorMessage = "Request limit exceeded";
+                            if (response.isSuccessful() && response.body() != null) {
+                                NewsResponse newsResponse = response.body();
+                                android.util.Log.d("NewsAPI", "Response status: " + newsResponse.getStatus());
+                                android.util.Log.d("NewsAPI", "Total results: " + newsResponse.getTotalResults());
+                                
+                                // Проверка статуса ответа
+                                if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
+                                    List<Article> allArticles = newsResponse.getArticles();
+                                    if (allArticles != null && !allArticles.isEmpty()) {
+                                        android.util.Log.d("NewsAPI", "Articles loaded: " + allArticles.size());
+                                        displayArticles(allArticles);
+                                        
+                                        // Показываем уведомление
+                                        if (preferencesHelper.isNotificationsEnabled()) {
+                                            notificationHelper.showNotification(
+                                                    "New news",
+                                                    "Loaded " + allArticles.size() + " news",
+                                                    null
+                                            );
+                                        }
                                     } else {
-                                        errorMessage = "API Error: " + (errorBody.length() > 200 ? errorBody.substring(0, 200) + "..." : errorBody);
+                                        android.util.Log.w("NewsAPI", "Articles list is null or empty");
+                                        showLoadError("No news found for category: " + category);
                                     }
-                                } catch (Exception e) {
-                                    android.util.Log.e("NewsAPI", "Error parsing response", e);
-                                    errorMessage = "Error loading (code " + response.code() + ")";
+                                } else {
+                                    android.util.Log.e("NewsAPI", "API returned error status: " + newsResponse.getStatus());
+                                    showLoadError("API Error: " + (newsResponse.getStatus() != null ? newsResponse.getStatus() : "unknown"));
                                 }
-                            }
-                            showError(errorMessage);
-                        }
-                    });
-                }
-                
-                @Override
-                public void onFailure(Call<NewsResponse> call, Throwable t) {
-                    mainHandler.post(() -> {
-                        showProgress(false);
-                        String errorMsg = "Connection error";
-                        if (t.getMessage() != null) {
-                            if (t.getMessage().contains("Unable to resolve host")) {
-                                errorMsg = "No internet connection";
-                            } else if (t.getMessage().contains("timeout")) {
-                                errorMsg = "Connection timeout";
                             } else {
-                                errorMsg = "Connection error: " + t.getMessage();
+                                ApiError error = ApiError.fromResponse(response);
+                                android.util.Log.e("NewsAPI", "Error response: " + error);
+                                showLoadError(error.getMessage());
                             }
-                        }
-                        showError(errorMsg);
-                    });
-                }
-            });
-        });
+                        });
+                    }
+                    
+                    @Override
+                    public void onFailure(Call<NewsResponse> call, Throwable t) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            showLoadError(ApiError.fromThrowable(t).getMessage());
+                        });
+                    }
+                });
     }
     
     private void searchNews(String query) {
@@ -634,149 +740,81 @@ public class MainActivity extends AppCompatActivity {
         }
         
         showProgress(true);
+        showingCachedNews = false;
         String sortBy = "publishedAt"; // Сортировка по дате по умолчанию
+        PageRequest pages = (page, pageSize) -> apiService.getNews(
+                query,
+                API_KEY,
+                pageSize,
+                sortBy,
+                "ru", // Язык для поиска (можно изменить на "en" для английского)
+                page
+        );
+        int size = startFeed(NewsRepository.searchKey(query), pages);
         
-        executorService.execute(() -> {
-            Call<NewsResponse> call = apiService.getNews(
-                    query,
-                    API_KEY,
-                    20,
-                    sortBy,
-                    "ru" // Язык для поиска (можно изменить на "en" для английского)
-            );
-            
-            call.enqueue(new Callback<NewsResponse>() {
-                @Override
-                public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
-                    mainHandler.post(() -> {
+        newsRepository.load(
+                requestManager,
+                REQUEST_FEED,
+                feedCursor,
+                () -> pages.create(1, size),
+                new NewsRepository.StreamingListener() {
+                    @Override
+                    public void onCached(List<Article> articles) {
                         showProgress(false);
-                        
-                        // Проверка типа контента
-                        String contentType = response.headers().get("Content-Type");
-                        if (contentType != null && contentType.contains("text/html")) {
-                            android.util.Log.e("NewsAPI", "Search: Received HTML instead of JSON!");
-                            showError("Error: API returned HTML instead of JSON\n\n" +
-                                    "This means:\n" +
-                                    "1. API key is invalid or expired\n" +
-                                    "2. Request is blocked by protection\n\n" +
-                                    "Check API key at https://newsapi.org/account");
-                            return;
-                        }
-                        
-                        if (response.isSuccessful() && response.body() != null) {
-                            NewsResponse newsResponse = response.body();
-                            android.util.Log.d("NewsAPI", "Search response status: " + newsResponse.getStatus());
-                            android.util.Log.d("NewsAPI", "Search total results: " + newsResponse.getTotalResults());
-                            
-                            // Логируем полный JSON ответ для просмотра формата данных
-                            try {
-                                com.google.gson.Gson gson = new com.google.gson.GsonBuilder().setPrettyPrinting().create();
-                                String jsonResponse = gson.toJson(newsResponse);
-                                android.util.Log.d("NewsAPI", "Full JSON Response:\n" + jsonResponse);
-                            } catch (Exception e) {
-                                android.util.Log.e("NewsAPI", "Error logging JSON", e);
-                            }
+                        displayArticles(articles);
+                        showingCachedNews = true;
+                    }
+                    
+                    @Override
+                    public void onArticle(Article article, int index) {
+                        showStreamedArticle(article, index);
+                    }
+                    
+                    @Override
+                    public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
                             
-                            // Проверка статуса ответа
-                            if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
-                                List<Article> searchArticles = newsResponse.getArticles();
-                                if (searchArticles != null && !searchArticles.isEmpty()) {
-                                    android.util.Log.d("NewsAPI", "Search articles loaded: " + searchArticles.size());
-                                    
-                                    // Разделяем на Trending (первые 5) и Latest (максимум 20)
-                                    int trendingCount = Math.min(5, searchArticles.size());
-                                    trendingArticles = new ArrayList<>(searchArticles.subList(0, trendingCount));
-                                    int latestStart = trendingCount;
-                                    int latestEnd = Math.min(latestStart + 20, searchArticles.size());
-                                    latestArticles = new ArrayList<>(searchArticles.subList(latestStart, latestEnd));
-                                    
-                                    trendingAdapter.setArticles(trendingArticles);
-                                    trendingAdapter.notifyDataSetChanged();
-                                    latestAdapter.setArticles(latestArticles);
-                                    latestAdapter.notifyDataSetChanged();
-                                    
-                                    // Принудительно запрашиваем перерисовку RecyclerView для правильного измерения
-                                    trendingRecyclerView.post(() -> {
-                                        trendingRecyclerView.requestLayout();
-                                    });
-                                    newsRecyclerView.post(() -> {
-                                        newsRecyclerView.requestLayout();
-                                    });
-                                    
-                                    // Показываем оба RecyclerView
-                                    trendingRecyclerView.setVisibility(View.VISIBLE);
-                                    newsRecyclerView.setVisibility(View.VISIBLE);
-                                    
-                                    errorTextView.setVisibility(View.GONE);
-                                    progressBar.setVisibility(View.GONE);
-                                    
-                                    // Сохранение в кэш
-                                    saveToCache(searchArticles, query);
-                                    
-                                    // Показываем Toast для подтверждения
-                                    Toast.makeText(MainActivity.this, 
-                                            "Found news: " + searchArticles.size(), 
-                                            Toast.LENGTH_SHORT).show();
-                                } else {
-                                    android.util.Log.w("NewsAPI", "Search: Articles list is null or empty");
-                                    showError("No news found for query: \"" + query + "\"\n\nTry another query");
-                                }
-                            } else {
-                                android.util.Log.e("NewsAPI", "Search API returned error status: " + newsResponse.getStatus());
-                                showError("API error during search: " + (newsResponse.getStatus() != null ? newsResponse.getStatus() : "unknown"));
-                            }
-                        } else {
-                            String errorMessage = "Ошибка загрузки новостей (код: " + response.code() + ")";
-                            if (response.code() == 401) {
-                                errorMessage = "Ошибка: Неверный API ключ!";
-                            } else if (response.code() == 429) {
-                                errorMessage = "Превышен лимит запросов.\nПопробуйте позже.";
-                            } else if (response.errorBody() != null) {
-                                try {
-                                    String errorBody = response.errorBody().string();
-                                    android.util.Log.e("NewsAPI", "Search error: " + errorBody);
-                                    
-                                    // Проверка на HTML ответ (Cloudflare защита)
-                                    if (errorBody.contains("<!DOCTYPE html") || errorBody.contains("<html") || errorBody.contains("Just a moment")) {
-                                        errorMessage = "Ошибка: API вернул HTML вместо JSON\n\n" +
-                                                "Возможные причины:\n" +
-                                                "1. API ключ неверный или истек\n" +
-                                                "2. Запрос блокируется защитой\n" +
-                                                "3. Проблема с подключением\n\n" +
-                                                "Проверьте API ключ на https://newsapi.org/account";
-                                    } else if (errorBody.contains("apiKey") || errorBody.contains("Invalid API key")) {
-                                        errorMessage = "Ошибка: Проблема с API ключом\n\n" + errorBody;
+                            if (response.isSuccessful() && response.body() != null) {
+                                NewsResponse newsResponse = response.body();
+                                android.util.Log.d("NewsAPI", "Search response status: " + newsResponse.getStatus());
+                                android.util.Log.d("NewsAPI", "Search total results: " + newsResponse.getTotalResults());
+                                
+                                // Проверка статуса ответа
+                                if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
+                                    List<Article> searchArticles = newsResponse.getArticles();
+                                    if (searchArticles != null && !searchArticles.isEmpty()) {
+                                        android.util.Log.d("NewsAPI", "Search articles loaded: " + searchArticles.size());
+                                        displayArticles(searchArticles);
+                                        
+                                        // Показываем Toast для подтверждения
+                                        Toast.makeText(MainActivity.this, 
+                                                "Found news: " + searchArticles.size(), 
+                                                Toast.LENGTH_SHORT).show();
                                     } else {
-                                        errorMessage = "Ошибка API: " + (errorBody.length() > 200 ? errorBody.substring(0, 200) + "..." : errorBody);
+                                        android.util.Log.w("NewsAPI", "Search: Articles list is null or empty");
+                                        showLoadError("No news found for query: \"" + query + "\"\n\nTry another query");
                                     }
-                                } catch (Exception e) {
-                                    android.util.Log.e("NewsAPI", "Error parsing search response", e);
+                                } else {
+                                    android.util.Log.e("NewsAPI", "Search API returned error status: " + newsResponse.getStatus());
+                                    showLoadError("API error during search: " + (newsResponse.getStatus() != null ? newsResponse.getStatus() : "unknown"));
                                 }
-                            }
-                            showError(errorMessage);
-                        }
-                    });
-                }
-                
-                @Override
-                public void onFailure(Call<NewsResponse> call, Throwable t) {
-                    mainHandler.post(() -> {
-                        showProgress(false);
-                        String errorMsg = "Connection error";
-                        if (t.getMessage() != null) {
-                            if (t.getMessage().contains("Unable to resolve host")) {
-                                errorMsg = "No internet connection";
-                            } else if (t.getMessage().contains("timeout")) {
-                                errorMsg = "Connection timeout";
                             } else {
-                                errorMsg = "Connection error: " + t.getMessage();
+                                ApiError error = ApiError.fromResponse(response);
+                                android.util.Log.e("NewsAPI", "Error response: " + error);
+                                showLoadError(error.getMessage());
                             }
-                        }
-                        showError(errorMsg);
-                    });
-                }
-            });
-        });
+                        });
+                    }
+                    
+                    @Override
+                    public void onFailure(Call<NewsResponse> call, Throwable t) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            showLoadError(ApiError.fromThrowable(t).getMessage());
+                        });
+                    }
+                });
     }
     
     private void showProgress(boolean show) {
@@ -790,6 +828,18 @@ public class MainActivity extends AppCompatActivity {
         newsRecyclerView.setVisibility(View.GONE);
     }
     
+    /**
+     * Ошибка сети: если уже показан кэш, не прячем его, а только сообщаем
+     */
+    private void showLoadError(String message) {
+        if (showingCachedNews) {
+            newsRecyclerView.setVisibility(View.VISIBLE);
+            Toast.makeText(this, "Showing cached news", Toast.LENGTH_SHORT).show();
+        } else {
+            showError(message);
+        }
+    }
+    
     private void showArticleDialog(Article article) {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle(article.getTitle());
@@ -811,7 +861,7 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void showFavoritesDialog() {
-        executorService.execute(() -> {
+        dbExecutor.execute(() -> {
             List<FavoriteArticle> favorites = database.favoriteArticleDao().getAll();
             mainHandler.post(() -> {
                 if (favorites.isEmpty()) {
@@ -833,52 +883,22 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void saveToFavorites(Article article) {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = new FavoriteArticle();
-            favorite.setTitle(article.getTitle());
-            favorite.setDescription(article.getDescription());
-            favorite.setUrl(article.getUrl());
-            favorite.setUrlToImage(article.getUrlToImage());
-            favorite.setAuthor(article.getAuthor());
-            favorite.setPublishedAt(article.getPublishedAt());
-            if (article.getSource() != null) {
-                favorite.setSourceName(article.getSource().getName());
-            }
-            
-            database.favoriteArticleDao().insert(favorite);
-            mainHandler.post(() -> {
-                Toast.makeText(this, "Added to favorites", Toast.LENGTH_SHORT).show();
-            });
-        });
+        FavoritesIndex.getInstance(this).setFavorite(article, true);
+        Toast.makeText(this, "Added to favorites", Toast.LENGTH_SHORT).show();
     }
     
     private void removeFromFavorites(Article article) {
-        executorService.execute(() -> {
-            FavoriteArticle favorite = database.favoriteArticleDao().getByUrl(article.getUrl());
-            if (favorite != null) {
-                database.favoriteArticleDao().delete(favorite);
-            }
-            mainHandler.post(() -> {
-                Toast.makeText(this, "Removed from favorites", Toast.LENGTH_SHORT).show();
-            });
-        });
+        FavoritesIndex.getInstance(this).setFavorite(article, false);
+        Toast.makeText(this, "Removed from favorites", Toast.LENGTH_SHORT).show();
     }
     
     private void saveSearchHistory(String query) {
-        executorService.execute(() -> {
-            com.artem.finalproject.database.entity.SearchHistory history = 
-                    new com.artem.finalproject.database.entity.SearchHistory();
-            history.setQuery(query);
-            history.setResultCount(latestArticles.size());
-            database.searchHistoryDao().insert(history);
-        });
-    }
-    
-    private void saveToCache(List<Article> articles, String query) {
-        // Реализация кэширования (упрощенная версия)
-        executorService.execute(() -> {
-            // Здесь можно добавить логику кэширования
-        });
+        com.artem.finalproject.database.entity.SearchHistory history = 
+                new com.artem.finalproject.database.entity.SearchHistory();
+        history.setQuery(query);
+        history.setResultCount(latestArticles.size());
+        WriteBehindQueue.getInstance(this).enqueue(db -> db.searchHistoryDao().insert(history));
+        SearchSuggestions.getInstance(this).record(query, history.getSearchedAt());
     }
     
     private void showNotification(String title, String message, String articleUrl) {
@@ -919,7 +939,7 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void showNotificationsDialog() {
-        executorService.execute(() -> {
+        dbExecutor.execute(() -> {
             // Получаем последние уведомления из базы данных или создаем пример
             mainHandler.post(() -> {
                 AlertDialog.Builder builder = new AlertDialog.Builder(this);
@@ -1038,8 +1058,9 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
+        requestManager.cancelAll();
+        if (isFinishing()) {
+            WriteBehindQueue.getInstance(this).flush();
         }
     }
 }
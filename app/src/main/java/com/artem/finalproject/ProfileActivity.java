@@ -14,22 +14,31 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
 
+import com.artem.finalproject.api.CoalescingNewsApiService;
+import com.artem.finalproject.api.RequestBudget;
+import com.artem.finalproject.api.RequestManager;
 import com.artem.finalproject.database.AppDatabase;
-import com.artem.finalproject.database.entity.FavoriteArticle;
-import com.artem.finalproject.database.entity.SearchHistory;
+import com.artem.finalproject.database.dao.FavoriteArticleDao;
+import com.artem.finalproject.database.dao.SearchHistoryDao;
+import com.artem.finalproject.utils.AppExecutors;
 import com.artem.finalproject.utils.PreferencesHelper;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 /**
  * Активность профиля и настроек
  */
 public class ProfileActivity extends AppCompatActivity {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    // За сколько дней считаем среднее число поисков
+    private static final int SEARCH_STATS_DAYS = 7;
+    private static final int TOP_SOURCES = 3;
     
     private MaterialToolbar toolbar;
     private Switch darkModeSwitch;
@@ -37,11 +46,16 @@ public class ProfileActivity extends AppCompatActivity {
     private CheckBox autoRefreshCheckBox;
     private TextView favoritesCountTextView;
     private TextView searchHistoryCountTextView;
+    private TextView searchesTodayTextView;
+    private TextView topSourcesTextView;
+    private TextView apiQuotaTextView;
+    private TextView coalescedRequestsTextView;
+    private TextView cancelledRequestsTextView;
     private MaterialButton aboutButton;
     private BottomNavigationView bottomNavigation;
     
     private AppDatabase database;
-    private ExecutorService executorService;
+    private Executor dbExecutor;
     private Handler mainHandler;
     private PreferencesHelper preferencesHelper;
     
@@ -71,13 +85,18 @@ public class ProfileActivity extends AppCompatActivity {
         autoRefreshCheckBox = findViewById(R.id.autoRefreshCheckBox);
         favoritesCountTextView = findViewById(R.id.favoritesCountTextView);
         searchHistoryCountTextView = findViewById(R.id.searchHistoryCountTextView);
+        searchesTodayTextView = findViewById(R.id.searchesTodayTextView);
+        topSourcesTextView = findViewById(R.id.topSourcesTextView);
+        apiQuotaTextView = findViewById(R.id.apiQuotaTextView);
+        coalescedRequestsTextView = findViewById(R.id.coalescedRequestsTextView);
+        cancelledRequestsTextView = findViewById(R.id.cancelledRequestsTextView);
         aboutButton = findViewById(R.id.aboutButton);
         bottomNavigation = findViewById(R.id.bottomNavigation);
     }
     
     private void initUtils() {
         database = AppDatabase.getInstance(this);
-        executorService = Executors.newSingleThreadExecutor();
+        dbExecutor = AppExecutors.getInstance().diskIO();
         mainHandler = new Handler(Looper.getMainLooper());
         preferencesHelper = new PreferencesHelper(this);
     }
@@ -153,16 +172,62 @@ public class ProfileActivity extends AppCompatActivity {
         autoRefreshCheckBox.setChecked(preferencesHelper.isAutoRefresh());
     }
     
+    /**
+     * Статистика считается агрегатными запросами в SQLite и приходит через LiveData:
+     * Room пересчитывает ее при изменении таблиц, в память попадает несколько чисел,
+     * а не вся история и избранное.
+     */
     private void loadStatistics() {
-        executorService.execute(() -> {
-            List<FavoriteArticle> favorites = database.favoriteArticleDao().getAll();
-            List<SearchHistory> history = database.searchHistoryDao().getAll();
-            
-            mainHandler.post(() -> {
-                favoritesCountTextView.setText(String.valueOf(favorites.size()));
-                searchHistoryCountTextView.setText(String.valueOf(history.size()));
-            });
+        database.favoriteArticleDao().observeCount().observe(this, count ->
+                favoritesCountTextView.setText(String.valueOf(count)));
+        database.searchHistoryDao().observeCount().observe(this, count ->
+                searchHistoryCountTextView.setText(String.valueOf(count)));
+        database.favoriteArticleDao().observeTopSources(TOP_SOURCES).observe(this, this::showTopSources);
+        
+        long now = System.currentTimeMillis();
+        long utcOffset = TimeZone.getDefault().getOffset(now);
+        long today = (now + utcOffset) / DAY_MS;
+        // Начало самого раннего из учитываемых дней в местном времени
+        long since = (today - SEARCH_STATS_DAYS + 1) * DAY_MS - utcOffset;
+        database.searchHistoryDao().observeSearchesPerDay(since, utcOffset).observe(this, days ->
+                showSearchesPerDay(days, today));
+        
+        dbExecutor.execute(() -> {
+            int quotaLeft = RequestBudget.getInstance(this).getRemaining();
+            mainHandler.post(() -> apiQuotaTextView.setText(quotaLeft + " / " + RequestBudget.DAILY_LIMIT));
         });
+        // Счетчики в памяти: сколько одинаковых запросов получили чужой ответ и сколько ушло в сеть
+        coalescedRequestsTextView.setText(CoalescingNewsApiService.getHitCount()
+                + " / " + CoalescingNewsApiService.getMissCount());
+        cancelledRequestsTextView.setText(String.valueOf(RequestManager.getTotalCancelledCount()));
+    }
+    
+    private void showSearchesPerDay(List<SearchHistoryDao.DayCount> days, long today) {
+        int todayCount = 0;
+        int total = 0;
+        for (SearchHistoryDao.DayCount day : days) {
+            if (day.day == today) {
+                todayCount = day.searchCount;
+            }
+            total += day.searchCount;
+        }
+        searchesTodayTextView.setText(String.format(Locale.US, "%d (%.1f/day)",
+                todayCount, total / (double) SEARCH_STATS_DAYS));
+    }
+    
+    private void showTopSources(List<FavoriteArticleDao.SourceCount> sources) {
+        if (sources.isEmpty()) {
+            topSourcesTextView.setText("-");
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (FavoriteArticleDao.SourceCount source : sources) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(source.sourceName).append(" (").append(source.articleCount).append(')');
+        }
+        topSourcesTextView.setText(text);
     }
     
     @Override
@@ -180,12 +245,4 @@ public class ProfileActivity extends AppCompatActivity {
         super.onBackPressed();
         overridePendingTransition(R.anim.slide_out_left, R.anim.slide_in_right);
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
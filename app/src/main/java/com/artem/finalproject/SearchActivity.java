@@ -4,6 +4,8 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ProgressBar;
@@ -17,12 +19,20 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.artem.finalproject.api.ApiClient;
+import com.artem.finalproject.api.ApiError;
 import com.artem.finalproject.api.NewsApiService;
-import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.api.RequestBudget;
+import com.artem.finalproject.api.RequestManager;
+import com.artem.finalproject.database.WriteBehindQueue;
 import com.artem.finalproject.database.entity.SearchHistory;
 import com.artem.finalproject.models.Article;
 import com.artem.finalproject.models.NewsResponse;
+import com.artem.finalproject.repository.ArticleSearch;
+import com.artem.finalproject.repository.FavoritesIndex;
+import com.artem.finalproject.repository.NewsRepository;
+import com.artem.finalproject.repository.SearchSuggestions;
 import com.artem.finalproject.ui.adapter.LatestAdapter;
+import com.artem.finalproject.ui.adapter.SuggestionAdapter;
 import com.artem.finalproject.utils.PreferencesHelper;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
@@ -31,8 +41,6 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -55,19 +63,37 @@ public class SearchActivity extends AppCompatActivity {
     private BottomNavigationView bottomNavigation;
     
     private LatestAdapter resultsAdapter;
+    private SuggestionAdapter suggestionAdapter;
     private List<Article> searchResults;
-    private List<SearchHistory> searchHistory;
+    // Текущий текст поиска, последний отправленный в сеть и тот, чьи результаты на экране
+    private String currentQuery;
+    private String lastNetworkQuery;
+    private String resultsQuery;
+    private String remoteResultsQuery;
+    private final Runnable debouncedSearch = this::onTypingPaused;
     
-    private AppDatabase database;
-    private ExecutorService executorService;
     private Handler mainHandler;
     private NewsApiService apiService;
+    private NewsRepository newsRepository;
+    private ArticleSearch articleSearch;
+    private SearchSuggestions searchSuggestions;
+    private RequestManager requestManager;
+    private RequestBudget requestBudget;
     private PreferencesHelper preferencesHelper;
     
     // ВАЖНО: Получите бесплатный API ключ на https://newsapi.org/ и замените значение ниже
     // См. инструкцию в файле API_KEY_SETUP.md
     private static final String API_KEY = "YOUR_API_KEY_HERE"; // Замените на свой API ключ от NewsAPI
     
+    // Поиск: новый запрос отменяет предыдущий
+    private static final String REQUEST_SEARCH = "query";
+    private static final int SEARCH_PAGE_SIZE = 20;
+    
+    // Поиск по мере ввода: сеть - после паузы в наборе, короткий текст не ищем
+    private static final long SEARCH_DEBOUNCE_MS = 600;
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_SUGGESTIONS = 5;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -87,10 +113,10 @@ public class SearchActivity extends AppCompatActivity {
         if (searchQuery != null && searchType != null) {
             if ("trending".equals(searchType)) {
                 searchEditText.setText("trending");
-                searchNews("trending");
+                searchNews("trending", false);
             } else if ("latest".equals(searchType)) {
                 searchEditText.setText("latest");
-                searchNews("latest");
+                searchNews("latest", false);
             }
         }
         
@@ -114,12 +140,14 @@ public class SearchActivity extends AppCompatActivity {
     }
     
     private void initUtils() {
-        database = AppDatabase.getInstance(this);
-        executorService = Executors.newFixedThreadPool(2);
         mainHandler = new Handler(Looper.getMainLooper());
-        apiService = ApiClient.getApiService();
+        apiService = ApiClient.getApiService(this);
+        newsRepository = NewsRepository.getInstance(this);
+        articleSearch = ArticleSearch.getInstance(this);
+        searchSuggestions = SearchSuggestions.getInstance(this);
+        requestBudget = RequestBudget.getInstance(this);
+        requestManager = new RequestManager("search");
         searchResults = new ArrayList<>();
-        searchHistory = new ArrayList<>();
     }
     
     private void setupToolbar() {
@@ -132,6 +160,7 @@ public class SearchActivity extends AppCompatActivity {
     
     private void setupRecyclerView() {
         resultsAdapter = new LatestAdapter();
+        resultsAdapter.setFavoritesIndex(FavoritesIndex.getInstance(this));
         resultsAdapter.setArticles(searchResults);
         resultsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         resultsRecyclerView.setAdapter(resultsAdapter);
@@ -143,8 +172,15 @@ public class SearchActivity extends AppCompatActivity {
             overridePendingTransition(R.anim.slide_in_right, R.anim.slide_out_left);
         });
         
-        // История поиска
+        // История поиска: подсказки по введенному префиксу
+        suggestionAdapter = new SuggestionAdapter();
         historyRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        historyRecyclerView.setAdapter(suggestionAdapter);
+        suggestionAdapter.setOnSuggestionClickListener(query -> {
+            searchEditText.setText(query);
+            searchEditText.setSelection(query.length());
+            submitSearch(query);
+        });
     }
     
     private void setupBottomNavigation() {
@@ -177,8 +213,7 @@ public class SearchActivity extends AppCompatActivity {
         searchButton.setOnClickListener(v -> {
             String query = searchEditText.getText().toString().trim();
             if (!query.isEmpty()) {
-                searchNews(query);
-                saveSearchHistory(query);
+                submitSearch(query);
             } else {
                 Toast.makeText(this, "Enter search query", Toast.LENGTH_SHORT).show();
             }
@@ -187,16 +222,33 @@ public class SearchActivity extends AppCompatActivity {
         searchEditText.setOnEditorActionListener((v, actionId, event) -> {
             String query = searchEditText.getText().toString().trim();
             if (!query.isEmpty()) {
-                searchNews(query);
-                saveSearchHistory(query);
+                submitSearch(query);
             }
             return true;
         });
         
+        // Поиск по мере ввода
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+            
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+            
+            @Override
+            public void afterTextChanged(Editable s) {
+                String query = s.toString().trim();
+                updateSuggestions(query);
+                onQueryTyped(query);
+            }
+        });
+        
         swipeRefreshLayout.setOnRefreshListener(() -> {
             String query = searchEditText.getText().toString().trim();
             if (!query.isEmpty()) {
-                searchNews(query);
+                searchNews(query, true);
             } else {
                 swipeRefreshLayout.setRefreshing(false);
             }
@@ -204,83 +256,184 @@ public class SearchActivity extends AppCompatActivity {
     }
     
     private void loadSearchHistory() {
-        executorService.execute(() -> {
-            searchHistory = database.searchHistoryDao().getAll();
-            mainHandler.post(() -> {
-                // Можно добавить адаптер для истории поиска
-            });
+        searchSuggestions.load(() -> updateSuggestions(searchEditText.getText().toString().trim()));
+    }
+    
+    private void updateSuggestions(String prefix) {
+        // Дерево в памяти: подсказка по префиксу занимает микросекунды, можно на каждое нажатие
+        suggestionAdapter.setSuggestions(searchSuggestions.suggest(prefix, MAX_SUGGESTIONS));
+    }
+    
+    private void submitSearch(String query) {
+        searchNews(query, false);
+        saveSearchHistory(query);
+    }
+    
+    /**
+     * Текст изменился: локальные совпадения показываем сразу,
+     * а в сеть идем только после паузы в наборе
+     */
+    private void onQueryTyped(String query) {
+        mainHandler.removeCallbacks(debouncedSearch);
+        if (query.equals(currentQuery)) {
+            return;
+        }
+        // Ответ на прежний текст больше не нужен
+        requestManager.cancel(REQUEST_SEARCH);
+        showProgress(false);
+        currentQuery = query;
+        lastNetworkQuery = null;
+        if (query.length() < MIN_QUERY_LENGTH) {
+            return;
+        }
+        searchLocal(query);
+        mainHandler.postDelayed(debouncedSearch, SEARCH_DEBOUNCE_MS);
+    }
+    
+    private void onTypingPaused() {
+        if (currentQuery != null && !currentQuery.equals(lastNetworkQuery)) {
+            searchNetwork(currentQuery);
+        }
+    }
+    
+    /**
+     * Явный поиск (кнопка, клавиатура, обновление). Без force сеть не вызывается,
+     * если по этому тексту уже был запрос
+     */
+    private void searchNews(String query, boolean force) {
+        mainHandler.removeCallbacks(debouncedSearch);
+        if (!query.equals(currentQuery)) {
+            requestManager.cancel(REQUEST_SEARCH);
+            currentQuery = query;
+            lastNetworkQuery = null;
+            searchLocal(query);
+        }
+        if (force || !query.equals(lastNetworkQuery)) {
+            searchNetwork(query);
+        } else {
+            swipeRefreshLayout.setRefreshing(false);
+        }
+    }
+    
+    /**
+     * Совпадения из кэша и избранного (FTS), без сети
+     */
+    private void searchLocal(String query) {
+        articleSearch.search(query, SEARCH_PAGE_SIZE, (searched, articles) -> {
+            // Пока шел поиск, текст мог измениться; результаты сети важнее локальных
+            if (!searched.equals(currentQuery) || searched.equals(remoteResultsQuery)) {
+                return;
+            }
+            if (!articles.isEmpty()) {
+                showResults(searched, articles, false);
+            } else if (!isNetworkSearchEnabled()) {
+                showError("Error: API key not set!");
+            } else {
+                hideResults();
+            }
         });
     }
     
-    private void searchNews(String query) {
-        if (API_KEY == null || API_KEY.isEmpty() || API_KEY.equals("YOUR_API_KEY_HERE")) {
-            showError("Error: API key not set!");
+    private boolean isNetworkSearchEnabled() {
+        return API_KEY != null && !API_KEY.isEmpty() && !API_KEY.equals("YOUR_API_KEY_HERE");
+    }
+    
+    private void searchNetwork(String query) {
+        if (!isNetworkSearchEnabled()) {
+            swipeRefreshLayout.setRefreshing(false);
             return;
         }
-        
+        lastNetworkQuery = query;
         showProgress(true);
-        resultsTitle.setVisibility(View.GONE);
-        resultsRecyclerView.setVisibility(View.GONE);
+        // Кэш и сеть читают страницу одного размера
+        int pageSize = requestBudget.adjustPageSize(SEARCH_PAGE_SIZE);
         
-        executorService.execute(() -> {
-            Call<NewsResponse> call = apiService.getNews(
-                    query,
-                    API_KEY,
-                    20,
-                    "publishedAt",
-                    "ru"
-            );
-            
-            call.enqueue(new Callback<NewsResponse>() {
-                @Override
-                public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
-                    mainHandler.post(() -> {
+        newsRepository.load(
+                requestManager,
+                REQUEST_SEARCH,
+                new NewsRepository.FeedCursor(NewsRepository.searchKey(query), pageSize),
+                () -> apiService.getNews(
+                        query,
+                        API_KEY,
+                        pageSize,
+                        "publishedAt",
+                        "ru",
+                        1
+                ),
+                new NewsRepository.Listener() {
+                    @Override
+                    public void onCached(List<Article> articles) {
                         showProgress(false);
                         swipeRefreshLayout.setRefreshing(false);
-                        
-                        if (response.isSuccessful() && response.body() != null) {
-                            NewsResponse newsResponse = response.body();
-                            if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
-                                List<Article> articles = newsResponse.getArticles();
-                                if (articles != null && !articles.isEmpty()) {
-                                    searchResults = articles;
-                                    resultsAdapter.setArticles(searchResults);
-                                    resultsTitle.setVisibility(View.VISIBLE);
-                                    resultsTitle.setText("Search Results (" + articles.size() + ")");
-                                    resultsRecyclerView.setVisibility(View.VISIBLE);
-                                    errorTextView.setVisibility(View.GONE);
-                                } else {
-                                    showError("No news found for query: \"" + query + "\"");
+                        showResults(query, articles, true);
+                    }
+                    
+                    @Override
+                    public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            swipeRefreshLayout.setRefreshing(false);
+                            
+                            if (response.isSuccessful() && response.body() != null) {
+                                NewsResponse newsResponse = response.body();
+                                if (newsResponse.getStatus() != null && newsResponse.getStatus().equals("ok")) {
+                                    List<Article> articles = newsResponse.getArticles();
+                                    if (articles != null && !articles.isEmpty()) {
+                                        showResults(query, articles, true);
+                                    } else if (!query.equals(resultsQuery)) {
+                                        showError("No news found for query: \"" + query + "\"");
+                                    }
+                                } else if (!query.equals(resultsQuery)) {
+                                    showError("API Error: " + newsResponse.getStatus());
                                 }
-                            } else {
-                                showError("API Error: " + newsResponse.getStatus());
+                            } else if (!query.equals(resultsQuery)) {
+                                showError(ApiError.fromResponse(response).getMessage());
                             }
-                        } else {
-                            showError("Error loading news (code: " + response.code() + ")");
-                        }
-                    });
-                }
-                
-                @Override
-                public void onFailure(Call<NewsResponse> call, Throwable t) {
-                    mainHandler.post(() -> {
-                        showProgress(false);
-                        swipeRefreshLayout.setRefreshing(false);
-                        showError("Connection error: " + t.getMessage());
-                    });
-                }
-            });
-        });
+                        });
+                    }
+                    
+                    @Override
+                    public void onFailure(Call<NewsResponse> call, Throwable t) {
+                        mainHandler.post(() -> {
+                            showProgress(false);
+                            swipeRefreshLayout.setRefreshing(false);
+                            // Если уже показаны результаты из кэша, оставляем их
+                            if (!query.equals(resultsQuery)) {
+                                showError(ApiError.fromThrowable(t).getMessage());
+                            }
+                        });
+                    }
+                });
+    }
+    
+    private void showResults(String query, List<Article> articles, boolean remote) {
+        resultsQuery = query;
+        if (remote) {
+            remoteResultsQuery = query;
+        }
+        searchResults = articles;
+        resultsAdapter.setArticles(searchResults);
+        resultsTitle.setVisibility(View.VISIBLE);
+        resultsTitle.setText("Search Results (" + articles.size() + ")");
+        resultsRecyclerView.setVisibility(View.VISIBLE);
+        errorTextView.setVisibility(View.GONE);
+    }
+    
+    private void hideResults() {
+        resultsQuery = null;
+        searchResults = new ArrayList<>();
+        resultsAdapter.setArticles(searchResults);
+        resultsTitle.setVisibility(View.GONE);
+        resultsRecyclerView.setVisibility(View.GONE);
     }
     
     private void saveSearchHistory(String query) {
-        executorService.execute(() -> {
-            SearchHistory history = new SearchHistory();
-            history.setQuery(query);
-            history.setResultCount(0);
-            database.searchHistoryDao().insert(history);
-            loadSearchHistory();
-        });
+        SearchHistory history = new SearchHistory();
+        history.setQuery(query);
+        history.setResultCount(0);
+        WriteBehindQueue.getInstance(this).enqueue(db -> db.searchHistoryDao().insert(history));
+        searchSuggestions.record(query, history.getSearchedAt());
+        updateSuggestions(searchEditText.getText().toString().trim());
     }
     
     private void showProgress(boolean show) {
@@ -312,12 +465,11 @@ public class SearchActivity extends AppCompatActivity {
         super.onBackPressed();
         overridePendingTransition(R.anim.slide_out_left, R.anim.slide_in_right);
     }
-    
+        
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
+        mainHandler.removeCallbacks(debouncedSearch);
+        requestManager.cancelAll();
     }
 }
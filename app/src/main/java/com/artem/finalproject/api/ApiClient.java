@@ -1,57 +1,156 @@
 package com.artem.finalproject.api;
 
+import android.content.Context;
+
+import com.artem.finalproject.BuildConfig;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.models.NewsResponse;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Клиент для работы с API
+ * Клиент для работы с API.
+ * Один OkHttpClient, один Retrofit и один прокси NewsApiService на весь процесс,
+ * чтобы все активности переиспользовали соединения и TLS-сессии.
  */
 public class ApiClient {
     private static final String BASE_URL = "https://newsapi.org/v2/";
-    private static Retrofit retrofit = null;
-    
-    public static Retrofit getClient() {
-        if (retrofit == null) {
-            // Настройка OkHttp с заголовками
-            OkHttpClient.Builder httpClient = new OkHttpClient.Builder();
-            
-            // Добавляем User-Agent для обхода защиты Cloudflare
-            httpClient.addInterceptor(new Interceptor() {
-                @Override
-                public Response intercept(Chain chain) throws IOException {
-                    Request original = chain.request();
-                    Request request = original.newBuilder()
-                            .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                            .header("Accept", "application/json")
-                            .header("Accept-Language", "en-US,en;q=0.9")
-                            .method(original.method(), original.body())
+    
+    // Все запросы идут на один хост, поэтому держим немного соединений подольше
+    private static final int MAX_IDLE_CONNECTIONS = 4;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    private static final int MAX_REQUESTS = 8;
+    private static final int MAX_REQUESTS_PER_HOST = 4;
+    
+    // Дисковый HTTP-кэш для ответов NewsAPI
+    private static final String HTTP_CACHE_DIR = "http_cache";
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+    
+    private static final ArticleTypeAdapter ARTICLE_ADAPTER = new ArticleTypeAdapter();
+    private static final NewsResponseTypeAdapter NEWS_RESPONSE_ADAPTER =
+            new NewsResponseTypeAdapter(ARTICLE_ADAPTER);
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Article.class, ARTICLE_ADAPTER)
+            .registerTypeAdapter(NewsResponse.class, NEWS_RESPONSE_ADAPTER)
+            .create();
+    
+    private static volatile OkHttpClient httpClient = null;
+    private static volatile Retrofit retrofit = null;
+    private static volatile NewsApiService apiService = null;
+    
+    /**
+     * Gson с потоковыми адаптерами для моделей NewsAPI
+     */
+    public static Gson getGson() {
+        return GSON;
+    }
+    
+    public static OkHttpClient getHttpClient(Context context) {
+        OkHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (ApiClient.class) {
+                client = httpClient;
+                if (client == null) {
+                    client = buildHttpClient(context.getApplicationContext());
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+    
+    public static Retrofit getClient(Context context) {
+        Retrofit client = retrofit;
+        if (client == null) {
+            synchronized (ApiClient.class) {
+                client = retrofit;
+                if (client == null) {
+                    client = new Retrofit.Builder()
+                            .baseUrl(BASE_URL)
+                            .client(getHttpClient(context))
+                            .addConverterFactory(GsonConverterFactory.create(GSON))
                             .build();
-                    return chain.proceed(request);
+                    retrofit = client;
                 }
-            });
-            
-            // Логирование для отладки
-            HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-            logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-            httpClient.addInterceptor(logging);
-            
-            retrofit = new Retrofit.Builder()
-                    .baseUrl(BASE_URL)
-                    .client(httpClient.build())
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .build();
+            }
         }
-        return retrofit;
+        return client;
     }
     
-    public static NewsApiService getApiService() {
-        return getClient().create(NewsApiService.class);
+    public static NewsApiService getApiService(Context context) {
+        NewsApiService service = apiService;
+        if (service == null) {
+            synchronized (ApiClient.class) {
+                service = apiService;
+                if (service == null) {
+                    // Одинаковые одновременные запросы уходят в сеть один раз
+                    service = new CoalescingNewsApiService(getClient(context).create(NewsApiService.class));
+                    apiService = service;
+                }
+            }
+        }
+        return service;
+    }
+    
+    private static OkHttpClient buildHttpClient(Context context) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        
+        // Настройка OkHttp с заголовками
+        OkHttpClient.Builder httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .cache(new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR), HTTP_CACHE_SIZE))
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(15, TimeUnit.SECONDS)
+                .readTimeout(20, TimeUnit.SECONDS);
+        
+        // Добавляем User-Agent для обхода защиты Cloudflare
+        httpClient.addInterceptor(new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request original = chain.request();
+                Request request = original.newBuilder()
+                        .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                        .header("Accept", "application/json")
+                        .header("Accept-Language", "en-US,en;q=0.9")
+                        .method(original.method(), original.body())
+                        .build();
+                return chain.proceed(request);
+            }
+        });
+        
+        // Без сети или без квоты отвечаем из кэша
+        RequestBudget budget = RequestBudget.getInstance(context);
+        httpClient.addInterceptor(new OfflineCacheInterceptor(context, budget));
+        
+        // Пока API сбоит - отвечаем из кэша; временные сбои повторяем с экспоненциальной задержкой
+        httpClient.addInterceptor(CircuitBreaker.getInstance());
+        httpClient.addInterceptor(new RetryInterceptor());
+        
+        // Каждый запрос в сеть расходует квоту; свежесть ответов задаем сами
+        httpClient.addNetworkInterceptor(new RequestBudgetInterceptor(budget));
+        httpClient.addNetworkInterceptor(new ResponseCacheInterceptor());
+        
+        // Логирование только в debug-сборке и без тел ответов по умолчанию
+        if (BuildConfig.DEBUG) {
+            httpClient.addNetworkInterceptor(new NetworkLogger());
+        }
+        
+        return httpClient.build();
     }
 }
@@ -0,0 +1,233 @@
+package com.artem.finalproject.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.MalformedJsonException;
+
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Date;
+
+/**
+ * Типизированная причина неудачного запроса к NewsAPI.
+ * Заменяет разбор строк ответа в активностях: сначала классифицируем, потом решаем,
+ * повторять ли запрос и что показать пользователю.
+ */
+public final class ApiError {
+    public enum Kind {
+        RATE_LIMITED,
+        QUOTA_EXHAUSTED,
+        CLOUDFLARE_CHALLENGE,
+        UNAUTHORIZED,
+        SERVER,
+        HTTP,
+        TIMEOUT,
+        DNS,
+        NO_CONNECTION,
+        CIRCUIT_OPEN,
+        UNKNOWN
+    }
+    
+    public static final long NO_RETRY_AFTER = -1;
+    
+    private final Kind kind;
+    private final int httpCode;
+    private final long retryAfterMillis;
+    private final String detail;
+    
+    ApiError(Kind kind, int httpCode, long retryAfterMillis, String detail) {
+        this.kind = kind;
+        this.httpCode = httpCode;
+        this.retryAfterMillis = retryAfterMillis;
+        this.detail = detail;
+    }
+    
+    /**
+     * Ошибка по неуспешному ответу Retrofit. Тело ошибки при этом вычитывается.
+     */
+    public static ApiError fromResponse(retrofit2.Response<?> response) {
+        okhttp3.Response raw = response.raw();
+        ApiError error = classify(raw);
+        if (error == null) {
+            error = new ApiError(Kind.HTTP, response.code(), NO_RETRY_AFTER, null);
+        }
+        
+        // NewsAPI кладет причину в JSON: {"status":"error","code":"rateLimited","message":"..."}
+        String apiCode = null;
+        String message = null;
+        ResponseBody errorBody = response.errorBody();
+        if (errorBody != null && !isHtml(errorBody.contentType())) {
+            try {
+                JsonElement json = JsonParser.parseString(errorBody.string());
+                if (json.isJsonObject()) {
+                    JsonObject object = json.getAsJsonObject();
+                    apiCode = object.has("code") ? object.get("code").getAsString() : null;
+                    message = object.has("message") ? object.get("message").getAsString() : null;
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // Тело не JSON - остаемся с классификацией по коду
+            }
+        }
+        if ("rateLimited".equals(apiCode)) {
+            return new ApiError(Kind.RATE_LIMITED, error.httpCode, error.retryAfterMillis, message);
+        }
+        if (apiCode != null && apiCode.startsWith("apiKey")) {
+            return new ApiError(Kind.UNAUTHORIZED, error.httpCode, NO_RETRY_AFTER, message);
+        }
+        return message != null
+                ? new ApiError(error.kind, error.httpCode, error.retryAfterMillis, message)
+                : error;
+    }
+    
+    /**
+     * Ошибка по исключению из onFailure
+     */
+    public static ApiError fromThrowable(Throwable t) {
+        if (t instanceof ApiException) {
+            return ((ApiException) t).getError();
+        }
+        if (t instanceof UnknownHostException) {
+            return new ApiError(Kind.DNS, 0, NO_RETRY_AFTER, t.getMessage());
+        }
+        if (t instanceof SocketTimeoutException
+                || (t instanceof InterruptedIOException && "timeout".equals(t.getMessage()))) {
+            return new ApiError(Kind.TIMEOUT, 0, NO_RETRY_AFTER, t.getMessage());
+        }
+        if (t instanceof ConnectException || t instanceof NoRouteToHostException) {
+            return new ApiError(Kind.NO_CONNECTION, 0, NO_RETRY_AFTER, t.getMessage());
+        }
+        if (t instanceof JsonParseException || t instanceof MalformedJsonException) {
+            // 200 с HTML вместо JSON почти всегда означает страницу проверки Cloudflare
+            return new ApiError(Kind.CLOUDFLARE_CHALLENGE, 0, NO_RETRY_AFTER, t.getMessage());
+        }
+        return new ApiError(Kind.UNKNOWN, 0, NO_RETRY_AFTER, t.getMessage());
+    }
+    
+    /**
+     * Классификация ответа OkHttp без чтения тела (для интерсепторов)
+     * @return null, если ответ успешный
+     */
+    static ApiError classify(okhttp3.Response response) {
+        int code = response.code();
+        ResponseBody body = response.body();
+        if (isHtml(body != null ? body.contentType() : null) || response.header("cf-mitigated") != null) {
+            return new ApiError(Kind.CLOUDFLARE_CHALLENGE, code, NO_RETRY_AFTER, null);
+        }
+        if (response.isSuccessful()) {
+            return null;
+        }
+        if (code == 504 && response.networkResponse() == null && response.request().cacheControl().onlyIfCached()) {
+            // Запрос только из кэша (нет сети или квоты), а в кэше ничего нет
+            return new ApiError(Kind.NO_CONNECTION, code, NO_RETRY_AFTER, null);
+        }
+        if (code == 401) {
+            return new ApiError(Kind.UNAUTHORIZED, code, NO_RETRY_AFTER, null);
+        }
+        if (code == 429) {
+            return new ApiError(Kind.RATE_LIMITED, code,
+                    parseRetryAfter(response.headers(), System.currentTimeMillis()), null);
+        }
+        if (code >= 500) {
+            return new ApiError(Kind.SERVER, code,
+                    parseRetryAfter(response.headers(), System.currentTimeMillis()), null);
+        }
+        return new ApiError(Kind.HTTP, code, NO_RETRY_AFTER, null);
+    }
+    
+    /**
+     * Retry-After бывает числом секунд или HTTP-датой
+     */
+    static long parseRetryAfter(Headers headers, long now) {
+        String header = headers.get("Retry-After");
+        if (header == null || header.isEmpty()) {
+            return NO_RETRY_AFTER;
+        }
+        try {
+            return Math.max(0, Long.parseLong(header.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = headers.getDate("Retry-After");
+            return date != null ? Math.max(0, date.getTime() - now) : NO_RETRY_AFTER;
+        }
+    }
+    
+    private static boolean isHtml(MediaType contentType) {
+        return contentType != null && "html".equalsIgnoreCase(contentType.subtype());
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public int getHttpCode() {
+        return httpCode;
+    }
+    
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+    
+    /**
+     * Имеет ли смысл повторить запрос позже автоматически
+     */
+    public boolean isRetryable() {
+        return kind == Kind.SERVER || kind == Kind.TIMEOUT || kind == Kind.NO_CONNECTION
+                || (kind == Kind.RATE_LIMITED && retryAfterMillis != NO_RETRY_AFTER);
+    }
+    
+    /**
+     * Говорит ли ошибка о том, что сам API сейчас не работает (для circuit breaker)
+     */
+    boolean isApiFailure() {
+        return kind == Kind.SERVER || kind == Kind.TIMEOUT || kind == Kind.RATE_LIMITED
+                || kind == Kind.CLOUDFLARE_CHALLENGE;
+    }
+    
+    /**
+     * Текст для пользователя
+     */
+    public String getMessage() {
+        switch (kind) {
+            case RATE_LIMITED:
+                return "Request limit exceeded.\nTry again later.";
+            case QUOTA_EXHAUSTED:
+                return "Daily NewsAPI request limit reached.\nTry again tomorrow.";
+            case CLOUDFLARE_CHALLENGE:
+                return "Error: API returned HTML instead of JSON\n\n" +
+                        "This means:\n" +
+                        "1. API key is invalid or expired\n" +
+                        "2. Request is blocked by protection\n\n" +
+                        "Check API key at https://newsapi.org/account";
+            case UNAUTHORIZED:
+                return "Error: Invalid API key!\n\nCheck the key in MainActivity.java";
+            case SERVER:
+                return "NewsAPI is temporarily unavailable (code: " + httpCode + ")";
+            case TIMEOUT:
+                return "Connection timeout";
+            case DNS:
+            case NO_CONNECTION:
+                return "No internet connection";
+            case CIRCUIT_OPEN:
+                return "NewsAPI is not responding.\nTry again in a minute.";
+            case HTTP:
+                return "Error loading news (code: " + httpCode + ")"
+                        + (detail != null ? "\n\n" + detail : "");
+            default:
+                return "Connection error" + (detail != null ? ": " + detail : "");
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return kind + (httpCode != 0 ? " " + httpCode : "") + (detail != null ? ": " + detail : "");
+    }
+}
@@ -0,0 +1,20 @@
+package com.artem.finalproject.api;
+
+import java.io.IOException;
+
+/**
+ * Ошибка запроса, уже классифицированная интерсепторами.
+ * Наследуется от IOException, чтобы OkHttp и Retrofit передали ее в onFailure.
+ */
+public class ApiException extends IOException {
+    private final ApiError error;
+    
+    public ApiException(ApiError error) {
+        super(error.toString());
+        this.error = error;
+    }
+    
+    public ApiError getError() {
+        return error;
+    }
+}
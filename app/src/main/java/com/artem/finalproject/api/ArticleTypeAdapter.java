@@ -0,0 +1,109 @@
+package com.artem.finalproject.api;
+
+import com.artem.finalproject.models.Article;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Потоковый (без рефлексии) адаптер Gson для Article и Article.Source.
+ * Поля, которые приложение не показывает (source.id и любые новые поля API), пропускаются.
+ */
+public class ArticleTypeAdapter extends TypeAdapter<Article> {
+    
+    @Override
+    public void write(JsonWriter out, Article article) throws IOException {
+        if (article == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (article.getSource() != null) {
+            out.name("source").beginObject();
+            out.name("id").value(article.getSource().getId());
+            out.name("name").value(article.getSource().getName());
+            out.endObject();
+        }
+        out.name("author").value(article.getAuthor());
+        out.name("title").value(article.getTitle());
+        out.name("description").value(article.getDescription());
+        out.name("url").value(article.getUrl());
+        out.name("urlToImage").value(article.getUrlToImage());
+        out.name("publishedAt").value(article.getPublishedAt());
+        out.name("content").value(article.getContent());
+        out.endObject();
+    }
+    
+    @Override
+    public Article read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Article article = new Article();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "source":
+                    article.setSource(readSource(in));
+                    break;
+                case "author":
+                    article.setAuthor(nextStringOrNull(in));
+                    break;
+                case "title":
+                    article.setTitle(nextStringOrNull(in));
+                    break;
+                case "description":
+                    article.setDescription(nextStringOrNull(in));
+                    break;
+                case "url":
+                    article.setUrl(nextStringOrNull(in));
+                    break;
+                case "urlToImage":
+                    article.setUrlToImage(nextStringOrNull(in));
+                    break;
+                case "publishedAt":
+                    article.setPublishedAt(nextStringOrNull(in));
+                    break;
+                case "content":
+                    article.setContent(nextStringOrNull(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return article;
+    }
+    
+    private static Article.Source readSource(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        Article.Source source = new Article.Source();
+        in.beginObject();
+        while (in.hasNext()) {
+            // id источника нигде не показывается
+            if ("name".equals(in.nextName())) {
+                source.setName(nextStringOrNull(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return source;
+    }
+    
+    static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
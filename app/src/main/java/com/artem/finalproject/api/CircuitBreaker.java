@@ -0,0 +1,160 @@
+package com.artem.finalproject.api;
+
+import android.util.Log;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker для NewsAPI.
+ * После нескольких подряд сбоев самого API (5xx, таймауты, 429, проверка Cloudflare)
+ * запросы на время перестают уходить в сеть и обслуживаются только из HTTP-кэша.
+ * По истечении паузы пропускается один пробный запрос: успех закрывает цепь, сбой
+ * снова открывает ее на удвоенное время. Пробный запрос идет мимо HTTP-кэша,
+ * иначе свежий ответ из кэша оставил бы цепь полуоткрытой навсегда.
+ */
+public class CircuitBreaker implements Interceptor {
+    private static final String TAG = "NewsAPI";
+    
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long BASE_OPEN_MS = 60 * 1000L;
+    private static final long MAX_OPEN_MS = 10 * 60 * 1000L;
+    private static final int MAX_STALE_DAYS = 7;
+    
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    // Что делать с очередным запросом
+    private enum Admission { NETWORK, PROBE, CACHE_ONLY }
+    
+    private static volatile CircuitBreaker instance;
+    
+    private final long baseOpenMs;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openDurationMs;
+    private long openedAt;
+    
+    CircuitBreaker(long baseOpenMs) {
+        this.baseOpenMs = baseOpenMs;
+        openDurationMs = baseOpenMs;
+    }
+    
+    public static CircuitBreaker getInstance() {
+        CircuitBreaker breaker = instance;
+        if (breaker == null) {
+            synchronized (CircuitBreaker.class) {
+                breaker = instance;
+                if (breaker == null) {
+                    breaker = new CircuitBreaker(BASE_OPEN_MS);
+                    instance = breaker;
+                }
+            }
+        }
+        return breaker;
+    }
+    
+    /**
+     * Открыта ли цепь прямо сейчас (запросы в сеть не пропускаются)
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openDurationMs;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Admission admission = admit();
+        if (admission == Admission.CACHE_ONLY) {
+            // Пока API недоступен, отвечаем тем, что есть в HTTP-кэше
+            Response cached = chain.proceed(request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(MAX_STALE_DAYS, TimeUnit.DAYS)
+                            .build())
+                    .build());
+            if (cached.isSuccessful()) {
+                return cached;
+            }
+            cached.close();
+            throw new ApiException(new ApiError(ApiError.Kind.CIRCUIT_OPEN, 0, ApiError.NO_RETRY_AFTER, null));
+        }
+        
+        // Запрос только из кэша (нет сети или квоты) оставляем как есть: такая проба не состоится
+        if (admission == Admission.PROBE && !request.cacheControl().onlyIfCached()) {
+            request = request.newBuilder().cacheControl(CacheControl.FORCE_NETWORK).build();
+        }
+        
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            record(ApiError.fromThrowable(e));
+            throw e;
+        }
+        // Ответ, полностью взятый из кэша, о здоровье API ничего не говорит
+        if (response.networkResponse() != null) {
+            record(ApiError.classify(response));
+        } else if (admission == Admission.PROBE) {
+            abortProbe();
+        }
+        return response;
+    }
+    
+    private synchronized Admission admit() {
+        if (state == State.CLOSED) {
+            return Admission.NETWORK;
+        }
+        if (state == State.HALF_OPEN || System.currentTimeMillis() - openedAt < openDurationMs) {
+            return Admission.CACHE_ONLY;
+        }
+        // Пауза прошла - пропускаем один пробный запрос
+        state = State.HALF_OPEN;
+        return Admission.PROBE;
+    }
+    
+    /**
+     * Пробный запрос не дошел до API - цепь снова открыта, но следующий запрос станет новой пробой
+     */
+    private synchronized void abortProbe() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis() - openDurationMs;
+        }
+    }
+    
+    private synchronized void record(ApiError error) {
+        if (error == null || error.getKind() == ApiError.Kind.HTTP || error.getKind() == ApiError.Kind.UNAUTHORIZED) {
+            // API ответил осмысленно - цепь закрыта
+            if (state != State.CLOSED) {
+                Log.d(TAG, "Circuit closed");
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            openDurationMs = baseOpenMs;
+            return;
+        }
+        if (!error.isApiFailure()) {
+            // Нет сети у устройства или кончилась квота: о самом API ничего не известно
+            abortProbe();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            openDurationMs = Math.min(MAX_OPEN_MS, openDurationMs * 2);
+            open(error);
+        } else if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            open(error);
+        }
+    }
+    
+    private void open(ApiError error) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        Log.w(TAG, "Circuit opened for " + openDurationMs / 1000 + " s after " + error);
+    }
+}
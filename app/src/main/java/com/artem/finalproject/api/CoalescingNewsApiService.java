@@ -0,0 +1,355 @@
+package com.artem.finalproject.api;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.models.NewsResponse;
+import com.artem.finalproject.utils.AppExecutors;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight обертка над NewsApiService.
+ * Одинаковые (после нормализации параметров) запросы, отправленные одновременно,
+ * делят один HTTP-вызов и один разобранный NewsResponse.
+ * Каждый вызывающий получает свой Call: его отмена отписывает только его,
+ * сетевой вызов отменяется, когда не остается ни одного подписчика.
+ * Первый подписчик получает разобранный ответ, остальные - копию NewsResponse
+ * со своим списком и своими Article (экраны меняют isFavorite у статей);
+ * Article.Source общий, его никто не меняет.
+ * Вызов выполняется на сетевой полосе AppExecutors: статьи уходят подписчикам,
+ * чей Callback реализует OnArticleListener, еще во время разбора ответа.
+ */
+public class CoalescingNewsApiService implements NewsApiService {
+    private static final String TAG = "NewsAPI";
+    
+    // Сколько запросов присоединилось к уже идущему вызову и сколько ушло в сеть
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    
+    private final NewsApiService delegate;
+    private final AppExecutors.PriorityLane network = AppExecutors.getInstance().network();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Flight> inFlight = new HashMap<>();
+    
+    private interface CallFactory {
+        Call<NewsResponse> create();
+    }
+    
+    public CoalescingNewsApiService(NewsApiService delegate) {
+        this.delegate = delegate;
+    }
+    
+    /**
+     * Сколько запросов получили ответ уже идущего вызова, не отправляя свой
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+    
+    /**
+     * Сколько вызовов ушло в сеть
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+    
+    @Override
+    public Call<NewsResponse> getNews(String query, String apiKey, int pageSize, String sortBy, String language,
+                                      int page) {
+        String key = "everything|" + normalize(query) + "|" + pageSize + "|" + normalize(sortBy)
+                + "|" + normalize(language) + "|" + page + "|" + apiKey;
+        return new SharedCall(key, () -> delegate.getNews(query, apiKey, pageSize, sortBy, language, page));
+    }
+    
+    @Override
+    public Call<NewsResponse> getTopHeadlines(String category, String apiKey, int pageSize, String country,
+                                              int page) {
+        String key = "top-headlines|" + normalize(category) + "|" + pageSize + "|" + normalize(country)
+                + "|" + page + "|" + apiKey;
+        return new SharedCall(key, () -> delegate.getTopHeadlines(category, apiKey, pageSize, country, page));
+    }
+    
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static NewsResponse copyOf(NewsResponse body) {
+        if (body == null) {
+            return null;
+        }
+        NewsResponse copy = new NewsResponse();
+        copy.setStatus(body.getStatus());
+        copy.setTotalResults(body.getTotalResults());
+        if (body.getArticles() != null) {
+            List<Article> articles = new ArrayList<>(body.getArticles().size());
+            for (Article article : body.getArticles()) {
+                articles.add(copyOf(article));
+            }
+            copy.setArticles(articles);
+        }
+        return copy;
+    }
+    
+    private static Article copyOf(Article article) {
+        Article copy = new Article();
+        copy.setSource(article.getSource());
+        copy.setAuthor(article.getAuthor());
+        copy.setTitle(article.getTitle());
+        copy.setDescription(article.getDescription());
+        copy.setUrl(article.getUrl());
+        copy.setUrlToImage(article.getUrlToImage());
+        copy.setPublishedAt(article.getPublishedAt());
+        copy.setContent(article.getContent());
+        copy.setFavorite(article.isFavorite());
+        return copy;
+    }
+    
+    /**
+     * Один сетевой вызов и его подписчики
+     */
+    private final class Flight implements Callback<NewsResponse> {
+        private final String key;
+        private final Call<NewsResponse> call;
+        private final List<SharedCall> subscribers = new ArrayList<>();
+        
+        Flight(String key, Call<NewsResponse> call) {
+            this.key = key;
+            this.call = call;
+        }
+        
+        /**
+         * Разбор идет на сетевом потоке, результат - как у Retrofit, на главном
+         */
+        void start() {
+            boolean accepted = network.execute(AppExecutors.PRIORITY_HIGH, () -> {
+                Response<NewsResponse> response;
+                try {
+                    response = NewsResponseTypeAdapter.readWith(this::emit, call::execute);
+                } catch (IOException | RuntimeException e) {
+                    mainHandler.post(() -> onFailure(call, e));
+                    return;
+                }
+                mainHandler.post(() -> onResponse(call, response));
+            });
+            if (!accepted) {
+                onFailure(call, new IOException("Network queue is full"));
+            }
+        }
+        
+        /**
+         * Статья только что разобрана: первому подписчику - она сама, остальным - копии
+         */
+        private void emit(Article article, int index) {
+            List<SharedCall> targets;
+            synchronized (inFlight) {
+                targets = new ArrayList<>(subscribers);
+            }
+            for (int i = 0; i < targets.size(); i++) {
+                targets.get(i).article(i == 0 ? article : copyOf(article), index);
+            }
+        }
+        
+        @Override
+        public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+            List<SharedCall> targets = finish();
+            if (targets.isEmpty()) {
+                return;
+            }
+            if (response.isSuccessful() || response.errorBody() == null) {
+                targets.get(0).deliver(response);
+                for (int i = 1; i < targets.size(); i++) {
+                    targets.get(i).deliver(Response.success(copyOf(response.body()), response.raw()));
+                }
+                return;
+            }
+            
+            // Тело ошибки читается один раз, поэтому каждому подписчику - своя копия
+            byte[] errorBytes;
+            MediaType contentType = response.errorBody().contentType();
+            try {
+                errorBytes = response.errorBody().bytes();
+            } catch (IOException e) {
+                for (SharedCall target : targets) {
+                    target.fail(e);
+                }
+                return;
+            }
+            for (SharedCall target : targets) {
+                target.deliver(Response.error(ResponseBody.create(errorBytes, contentType), response.raw()));
+            }
+        }
+        
+        @Override
+        public void onFailure(Call<NewsResponse> call, Throwable t) {
+            for (SharedCall target : finish()) {
+                target.fail(t);
+            }
+        }
+        
+        private List<SharedCall> finish() {
+            synchronized (inFlight) {
+                if (inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                }
+                List<SharedCall> targets = new ArrayList<>(subscribers);
+                subscribers.clear();
+                return targets;
+            }
+        }
+    }
+    
+    /**
+     * Call конкретного вызывающего поверх общего Flight
+     */
+    private final class SharedCall implements Call<NewsResponse> {
+        private final String key;
+        private final CallFactory factory;
+        private Call<NewsResponse> prototype;
+        private Callback<NewsResponse> callback;
+        private Flight flight;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+        
+        SharedCall(String key, CallFactory factory) {
+            this.key = key;
+            this.factory = factory;
+        }
+        
+        @Override
+        public void enqueue(Callback<NewsResponse> callback) {
+            boolean start = false;
+            boolean canceledEarly;
+            synchronized (inFlight) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+                this.callback = callback;
+                canceledEarly = canceled;
+                if (!canceledEarly) {
+                    flight = inFlight.get(key);
+                    if (flight == null) {
+                        misses.incrementAndGet();
+                        flight = new Flight(key, factory.create());
+                        inFlight.put(key, flight);
+                        start = true;
+                    } else {
+                        long joined = hits.incrementAndGet();
+                        Log.d(TAG, "coalesced request, joined=" + joined + " sent=" + misses.get());
+                    }
+                    flight.subscribers.add(this);
+                }
+            }
+            if (canceledEarly) {
+                fail(new IOException("Canceled"));
+            } else if (start) {
+                flight.start();
+            }
+        }
+        
+        /**
+         * Синхронный вызов не объединяется с другими
+         */
+        @Override
+        public Response<NewsResponse> execute() throws IOException {
+            synchronized (inFlight) {
+                if (executed) {
+                    throw new IllegalStateException("Already executed.");
+                }
+                executed = true;
+            }
+            misses.incrementAndGet();
+            return factory.create().execute();
+        }
+        
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+        
+        @Override
+        public void cancel() {
+            Call<NewsResponse> abandoned = null;
+            boolean notify;
+            synchronized (inFlight) {
+                if (canceled) {
+                    return;
+                }
+                canceled = true;
+                notify = flight != null && flight.subscribers.remove(this);
+                if (notify && flight.subscribers.isEmpty()) {
+                    // Больше никто не ждет этот ответ - отменяем сетевой вызов
+                    if (inFlight.get(key) == flight) {
+                        inFlight.remove(key);
+                    }
+                    abandoned = flight.call;
+                }
+            }
+            if (abandoned != null) {
+                abandoned.cancel();
+            }
+            if (notify) {
+                fail(new IOException("Canceled"));
+            }
+        }
+        
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+        
+        @Override
+        public Call<NewsResponse> clone() {
+            return new SharedCall(key, factory);
+        }
+        
+        @Override
+        public Request request() {
+            return prototype().request();
+        }
+        
+        @Override
+        public Timeout timeout() {
+            return prototype().timeout();
+        }
+        
+        private synchronized Call<NewsResponse> prototype() {
+            if (prototype == null) {
+                prototype = factory.create();
+            }
+            return prototype;
+        }
+        
+        private void article(Article article, int index) {
+            if (callback instanceof NewsResponseTypeAdapter.OnArticleListener) {
+                ((NewsResponseTypeAdapter.OnArticleListener) callback).onArticle(article, index);
+            }
+        }
+        
+        private void deliver(Response<NewsResponse> response) {
+            callback.onResponse(this, response);
+        }
+        
+        private void fail(Throwable t) {
+            // Как и Retrofit, сообщаем об отмене на главном потоке
+            mainHandler.post(() -> callback.onFailure(this, t));
+        }
+    }
+}
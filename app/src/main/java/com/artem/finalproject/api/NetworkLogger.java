@@ -0,0 +1,118 @@
+package com.artem.finalproject.api;
+
+import android.util.Log;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отладочное логирование сети: одна структурированная строка на запрос
+ * (метод, URL без apiKey, код, размер, время), заголовки и тело - по флагам.
+ * Успешные запросы логируются выборочно, ошибки - всегда.
+ * Работает в потоках OkHttp, UI-поток не затрагивает.
+ */
+public class NetworkLogger implements Interceptor {
+    private static final String TAG = "NewsAPI";
+    private static final long MAX_BODY_BYTES = 4 * 1024;
+    
+    // Логируем каждый N-й успешный запрос
+    private static volatile int sampleRate = 5;
+    private static volatile boolean headersEnabled = false;
+    private static volatile boolean bodyEnabled = false;
+    
+    private final AtomicLong requestCounter = new AtomicLong();
+    
+    public static void setSampleRate(int rate) {
+        sampleRate = Math.max(1, rate);
+    }
+    
+    public static void setHeadersEnabled(boolean enabled) {
+        headersEnabled = enabled;
+    }
+    
+    public static void setBodyEnabled(boolean enabled) {
+        bodyEnabled = enabled;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long requestId = requestCounter.incrementAndGet();
+        long startNs = System.nanoTime();
+        
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+            Log.w(TAG, "http id=" + requestId + " method=" + request.method()
+                    + " url=" + redact(request.url()) + " error=" + e.getClass().getSimpleName()
+                    + " tookMs=" + tookMs);
+            throw e;
+        }
+        
+        boolean failed = !response.isSuccessful();
+        if (!failed && requestId % sampleRate != 0) {
+            return response;
+        }
+        
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+        ResponseBody body = response.body();
+        StringBuilder line = new StringBuilder(160)
+                .append("http id=").append(requestId)
+                .append(" method=").append(request.method())
+                .append(" url=").append(redact(request.url()))
+                .append(" code=").append(response.code())
+                .append(" bytes=").append(body != null ? body.contentLength() : 0)
+                .append(" tookMs=").append(tookMs);
+        
+        if (headersEnabled) {
+            line.append("\n  request: ").append(formatHeaders(request.headers()))
+                    .append("\n  response: ").append(formatHeaders(response.headers()));
+        }
+        if (bodyEnabled && body != null) {
+            line.append("\n  body: ").append(response.peekBody(MAX_BODY_BYTES).string());
+        }
+        
+        if (failed) {
+            Log.w(TAG, line.toString());
+        } else {
+            Log.d(TAG, line.toString());
+        }
+        return response;
+    }
+    
+    private static String redact(HttpUrl url) {
+        if (url.queryParameter("apiKey") == null) {
+            return url.toString();
+        }
+        return url.newBuilder().setQueryParameter("apiKey", "***").build().toString();
+    }
+    
+    private static String formatHeaders(Headers headers) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < headers.size(); i++) {
+            if (i > 0) {
+                result.append("; ");
+            }
+            result.append(headers.name(i)).append('=');
+            // Куки и авторизацию в лог не пишем
+            String name = headers.name(i);
+            if ("Cookie".equalsIgnoreCase(name) || "Set-Cookie".equalsIgnoreCase(name)
+                    || "Authorization".equalsIgnoreCase(name)) {
+                result.append("***");
+            } else {
+                result.append(headers.value(i));
+            }
+        }
+        return result.toString();
+    }
+}
@@ -17,6 +17,7 @@ public interface NewsApiService {
      * @param pageSize количество результатов
      * @param sortBy способ сортировки
      * @param language язык (опционально)
+     * @param page номер страницы, начиная с 1
      * @return список новостей
      */
     @GET("everything")
@@ -25,13 +26,15 @@ public interface NewsApiService {
             @Query("apiKey") String apiKey,
             @Query("pageSize") int pageSize,
             @Query("sortBy") String sortBy,
-            @Query("language") String language
+            @Query("language") String language,
+            @Query("page") int page
     );
     
     /**
      * Получить новости по категории
      * @param category категория новостей
      * @param apiKey API ключ
+     * @param page номер страницы, начиная с 1
      * @return список новостей
      */
     @GET("top-headlines")
@@ -39,6 +42,7 @@ public interface NewsApiService {
             @Query("category") String category,
             @Query("apiKey") String apiKey,
             @Query("pageSize") int pageSize,
-            @Query("country") String country
+            @Query("country") String country,
+            @Query("page") int page
     );
 }
@@ -0,0 +1,128 @@
+package com.artem.finalproject.api;
+
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.models.NewsResponse;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый адаптер Gson для NewsResponse: ответ читается JsonReader'ом
+ * без рефлексии, статьи разбирает ArticleTypeAdapter.
+ * Статьи могут сразу передаваться слушателю, не дожидаясь разбора всего ответа.
+ */
+public class NewsResponseTypeAdapter extends TypeAdapter<NewsResponse> {
+    
+    /**
+     * Получает статьи по мере разбора ответа, на потоке разбора
+     */
+    public interface OnArticleListener {
+        void onArticle(Article article, int index);
+    }
+    
+    /**
+     * Работа, внутри которой разбирается ответ (например, Call.execute())
+     */
+    public interface ParseTask<T> {
+        T run() throws IOException;
+    }
+    
+    // Retrofit разбирает ответ на том же потоке, где вызван Call.execute()
+    private static final ThreadLocal<OnArticleListener> LISTENER = new ThreadLocal<>();
+    
+    private final ArticleTypeAdapter articleAdapter;
+    
+    public NewsResponseTypeAdapter(ArticleTypeAdapter articleAdapter) {
+        this.articleAdapter = articleAdapter;
+    }
+    
+    /**
+     * Выполнить task, отдавая listener каждую статью, разобранную на этом потоке
+     */
+    public static <T> T readWith(OnArticleListener listener, ParseTask<T> task) throws IOException {
+        OnArticleListener previous = LISTENER.get();
+        LISTENER.set(listener);
+        try {
+            return task.run();
+        } finally {
+            if (previous == null) {
+                LISTENER.remove();
+            } else {
+                LISTENER.set(previous);
+            }
+        }
+    }
+    
+    @Override
+    public NewsResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        NewsResponse response = new NewsResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "status":
+                    response.setStatus(ArticleTypeAdapter.nextStringOrNull(in));
+                    break;
+                case "totalResults":
+                    response.setTotalResults(in.nextInt());
+                    break;
+                case "articles":
+                    response.setArticles(readArticles(in, LISTENER.get()));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return response;
+    }
+    
+    private List<Article> readArticles(JsonReader in, OnArticleListener listener) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<Article> articles = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Article article = articleAdapter.read(in);
+            if (article == null) {
+                continue;
+            }
+            if (listener != null) {
+                listener.onArticle(article, articles.size());
+            }
+            articles.add(article);
+        }
+        in.endArray();
+        return articles;
+    }
+    
+    @Override
+    public void write(JsonWriter out, NewsResponse response) throws IOException {
+        if (response == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("status").value(response.getStatus());
+        out.name("totalResults").value(response.getTotalResults());
+        if (response.getArticles() != null) {
+            out.name("articles").beginArray();
+            for (Article article : response.getArticles()) {
+                articleAdapter.write(out, article);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+}
@@ -0,0 +1,43 @@
+package com.artem.finalproject.api;
+
+import android.content.Context;
+
+import com.artem.finalproject.utils.NetworkUtils;
+
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Интерсептор приложения: без сети или при исчерпанном суточном лимите
+ * отвечает только из дискового кэша, даже если ответ уже устарел
+ */
+public class OfflineCacheInterceptor implements Interceptor {
+    private static final int MAX_STALE_DAYS = 7;
+    
+    private final Context context;
+    private final RequestBudget budget;
+    
+    public OfflineCacheInterceptor(Context context, RequestBudget budget) {
+        this.context = context.getApplicationContext();
+        this.budget = budget;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!NetworkUtils.isOnline(context) || budget.isExhausted()) {
+            request = request.newBuilder()
+                    .cacheControl(new CacheControl.Builder()
+                            .onlyIfCached()
+                            .maxStale(MAX_STALE_DAYS, TimeUnit.DAYS)
+                            .build())
+                    .build();
+        }
+        return chain.proceed(request);
+    }
+}
@@ -0,0 +1,11 @@
+package com.artem.finalproject.api;
+
+/**
+ * Суточный лимит запросов к NewsAPI исчерпан, запрос в сеть не отправлялся
+ */
+public class QuotaExhaustedException extends ApiException {
+    public QuotaExhaustedException() {
+        super(new ApiError(ApiError.Kind.QUOTA_EXHAUSTED, 0, ApiError.NO_RETRY_AFTER,
+                "NewsAPI daily request limit reached"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.artem.finalproject.api;
+
+import android.content.Context;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.dao.AppSettingsDao;
+import com.artem.finalproject.database.entity.AppSettings;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Суточный лимит бесплатного тарифа NewsAPI (100 запросов в день) в виде token bucket.
+ * Жетоны равномерно восстанавливаются в течение суток, состояние хранится в app_settings,
+ * поэтому перезапуск приложения не обнуляет расход.
+ * Методы обращаются к базе и вызываются только из фоновых потоков (кроме adjustPageSize).
+ */
+public class RequestBudget {
+    private static final String SETTINGS_KEY = "newsapi_request_budget";
+    
+    public static final int DAILY_LIMIT = 100;
+    private static final long REFILL_PERIOD_MS = 24 * 60 * 60 * 1000L;
+    
+    // Ниже этого остатка фоновые обновления реже, а страницы крупнее
+    private static final int LOW_WATERMARK = 20;
+    private static final int LOW_TTL_MULTIPLIER = 4;
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static volatile RequestBudget instance;
+    
+    private final AppSettingsDao settingsDao;
+    // Снимок состояния читается без блокировки; null - еще не загружен из базы
+    private final AtomicReference<State> state = new AtomicReference<>();
+    // Только упорядочивает записи в app_settings; главный поток его не берет
+    private final Object saveLock = new Object();
+    
+    private RequestBudget(Context context) {
+        settingsDao = AppDatabase.getInstance(context).appSettingsDao();
+    }
+    
+    public static RequestBudget getInstance(Context context) {
+        RequestBudget budget = instance;
+        if (budget == null) {
+            synchronized (RequestBudget.class) {
+                budget = instance;
+                if (budget == null) {
+                    budget = new RequestBudget(context.getApplicationContext());
+                    instance = budget;
+                }
+            }
+        }
+        return budget;
+    }
+    
+    /**
+     * Взять один жетон перед сетевым запросом
+     * @return false, если лимит на сегодня исчерпан
+     */
+    public boolean tryAcquire() {
+        State current = loaded();
+        while (true) {
+            long now = System.currentTimeMillis();
+            double available = current.available(now);
+            if (available < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(available - 1, now))) {
+                save();
+                return true;
+            }
+            current = state.get();
+        }
+    }
+    
+    /**
+     * Сервер ответил 429 - наш счетчик разошелся с реальным, считаем лимит исчерпанным
+     */
+    public void markExhausted() {
+        loaded();
+        state.set(new State(0, System.currentTimeMillis()));
+        save();
+    }
+    
+    public int getRemaining() {
+        return (int) loaded().available(System.currentTimeMillis());
+    }
+    
+    public boolean isExhausted() {
+        return getRemaining() < 1;
+    }
+    
+    public boolean isLow() {
+        return getRemaining() < LOW_WATERMARK;
+    }
+    
+    /**
+     * Время жизни кэша с учетом остатка: при малом остатке обновляемся реже
+     */
+    public long adjustTtl(long ttl) {
+        return isLow() ? ttl * LOW_TTL_MULTIPLIER : ttl;
+    }
+    
+    /**
+     * Размер страницы с учетом остатка: при малом остатке берем больше за один запрос.
+     * Читает только снимок в памяти, без базы и блокировок, поэтому можно вызывать
+     * с главного потока; до первой загрузки состояния считает лимит полным.
+     */
+    public int adjustPageSize(int pageSize) {
+        State current = state.get();
+        double left = current != null ? current.available(System.currentTimeMillis()) : DAILY_LIMIT;
+        return left < LOW_WATERMARK ? MAX_PAGE_SIZE : pageSize;
+    }
+    
+    /**
+     * Текущий снимок; при первом обращении читает его из базы.
+     * Если два потока загрузили одновременно, остается снимок того, кто успел первым.
+     */
+    private State loaded() {
+        State current = state.get();
+        if (current != null) {
+            return current;
+        }
+        state.compareAndSet(null, load(System.currentTimeMillis()));
+        return state.get();
+    }
+    
+    private State load(long now) {
+        AppSettings settings = settingsDao.getByKey(SETTINGS_KEY);
+        if (settings == null || settings.getValue() == null) {
+            return new State(DAILY_LIMIT, now);
+        }
+        // Формат значения: "<жетоны>;<время последнего пополнения>"
+        String[] parts = settings.getValue().split(";");
+        try {
+            return new State(Math.max(0, Math.min(DAILY_LIMIT, Double.parseDouble(parts[0]))),
+                    Math.min(now, Long.parseLong(parts[1])));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return new State(DAILY_LIMIT, now);
+        }
+    }
+    
+    /**
+     * Записывает последний снимок: даже если записи потоков пришли не по порядку,
+     * в базе остается актуальное состояние
+     */
+    private void save() {
+        synchronized (saveLock) {
+            State current = state.get();
+            String value = current.tokens + ";" + current.lastRefillAt;
+            AppSettings settings = settingsDao.getByKey(SETTINGS_KEY);
+            if (settings == null) {
+                settingsDao.insert(new AppSettings(SETTINGS_KEY, value));
+            } else {
+                settings.setValue(value);
+                settingsDao.update(settings);
+            }
+        }
+    }
+    
+    /**
+     * Неизменяемый снимок: жетоны на момент lastRefillAt
+     */
+    private static final class State {
+        final double tokens;
+        final long lastRefillAt;
+        
+        State(double tokens, long lastRefillAt) {
+            this.tokens = tokens;
+            this.lastRefillAt = lastRefillAt;
+        }
+        
+        double available(long now) {
+            long elapsed = Math.max(0, now - lastRefillAt);
+            return Math.min(DAILY_LIMIT, tokens + elapsed * (double) DAILY_LIMIT / REFILL_PERIOD_MS);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.artem.finalproject.api;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Сетевой интерсептор: каждый запрос, реально уходящий в сеть, берет жетон из RequestBudget.
+ * Ответы из HTTP-кэша сюда не доходят и лимит не расходуют.
+ */
+public class RequestBudgetInterceptor implements Interceptor {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    
+    private final RequestBudget budget;
+    
+    public RequestBudgetInterceptor(RequestBudget budget) {
+        this.budget = budget;
+    }
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        if (!budget.tryAcquire()) {
+            throw new QuotaExhaustedException();
+        }
+        Response response = chain.proceed(chain.request());
+        if (response.code() == HTTP_TOO_MANY_REQUESTS) {
+            budget.markExhausted();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,104 @@
+package com.artem.finalproject.api;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import retrofit2.Call;
+
+/**
+ * Учет сетевых запросов одного экрана.
+ * Запросы хранятся по ключу "экран:намерение": новый запрос с тем же ключом
+ * отменяет предыдущий (побеждает последний), в onDestroy отменяются все.
+ * Используется только с главного потока.
+ */
+public class RequestManager {
+    private static final String TAG = "NewsAPI";
+    
+    // Сколько запросов отменено за все время работы приложения
+    private static final AtomicLong totalCancelled = new AtomicLong();
+    
+    private final String screen;
+    private final Map<String, Call<?>> calls = new HashMap<>();
+    private int cancelledCount;
+    
+    public RequestManager(String screen) {
+        this.screen = screen;
+    }
+    
+    /**
+     * Запомнить запрос; незавершенный запрос с тем же ключом отменяется
+     */
+    public void track(String intent, Call<?> call) {
+        Call<?> previous = calls.put(key(intent), call);
+        if (previous != null && previous != call) {
+            cancel(previous);
+        }
+    }
+    
+    /**
+     * Запрос завершился сам - отменять его больше не нужно
+     */
+    public void release(String intent, Call<?> call) {
+        String key = key(intent);
+        if (calls.get(key) == call) {
+            calls.remove(key);
+        }
+    }
+    
+    /**
+     * Актуален ли еще запрос (не заменен более новым и не отменен)
+     */
+    public boolean isCurrent(String intent, Call<?> call) {
+        return calls.get(key(intent)) == call && !call.isCanceled();
+    }
+    
+    public void cancel(String intent) {
+        Call<?> call = calls.remove(key(intent));
+        if (call != null) {
+            cancel(call);
+        }
+    }
+    
+    public void cancelAll() {
+        List<Call<?>> pending = new ArrayList<>(calls.values());
+        calls.clear();
+        for (Call<?> call : pending) {
+            cancel(call);
+        }
+        if (cancelledCount > 0) {
+            Log.d(TAG, screen + ": cancelled " + cancelledCount + " request(s), total " + getTotalCancelledCount());
+        }
+    }
+    
+    /**
+     * Сколько запросов этого экрана отменено
+     */
+    public int getCancelledCount() {
+        return cancelledCount;
+    }
+    
+    /**
+     * Сколько запросов отменено всеми экранами с запуска приложения
+     */
+    public static long getTotalCancelledCount() {
+        return totalCancelled.get();
+    }
+    
+    private void cancel(Call<?> call) {
+        if (call.isCanceled()) {
+            return;
+        }
+        call.cancel();
+        cancelledCount++;
+        totalCancelled.incrementAndGet();
+    }
+    
+    private String key(String intent) {
+        return screen + ":" + intent;
+    }
+}
@@ -0,0 +1,49 @@
+package com.artem.finalproject.api;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Сетевой интерсептор: задает собственную политику свежести для ответов NewsAPI.
+ * ETag/Last-Modified сервера не трогаем, поэтому после истечения max-age
+ * OkHttp сам отправит условный запрос и получит 304 вместо полного JSON.
+ */
+public class ResponseCacheInterceptor implements Interceptor {
+    // Топ-новости обновляются часто, результаты поиска - реже
+    private static final int MAX_AGE_TOP_HEADLINES = 5 * 60;
+    private static final int MAX_AGE_EVERYTHING = 15 * 60;
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+        
+        // Ошибки (401, 429, 5xx) не кэшируем
+        if (!response.isSuccessful() || !"GET".equals(request.method())) {
+            return response;
+        }
+        
+        int maxAge = getMaxAge(request);
+        if (maxAge <= 0) {
+            return response;
+        }
+        
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + maxAge)
+                .build();
+    }
+    
+    private int getMaxAge(Request request) {
+        String path = request.url().encodedPath();
+        if (path.endsWith("/top-headlines")) {
+            return MAX_AGE_TOP_HEADLINES;
+        } else if (path.endsWith("/everything")) {
+            return MAX_AGE_EVERYTHING;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.artem.finalproject.api;
+
+import android.util.Log;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Интерсептор приложения: повторяет идемпотентные GET-запросы при 429/5xx и сетевых сбоях
+ * с ограниченной экспоненциальной задержкой и случайным разбросом (full jitter).
+ * Retry-After сервера соблюдается; если он больше MAX_DELAY_MS, запрос не повторяется.
+ * Ответ с HTML вместо JSON (проверка Cloudflare) превращается в ApiException.
+ */
+public class RetryInterceptor implements Interceptor {
+    private static final String TAG = "NewsAPI";
+    
+    private static final int MAX_RETRIES = 2;
+    private static final long BASE_DELAY_MS = 1000;
+    private static final long MAX_DELAY_MS = 8000;
+    
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        // Ответы "только из кэша" повторять бессмысленно
+        boolean idempotent = "GET".equals(request.method()) && !request.cacheControl().onlyIfCached();
+        
+        for (int attempt = 0; ; attempt++) {
+            boolean canRetry = idempotent && attempt < MAX_RETRIES && !chain.call().isCanceled();
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (ApiException e) {
+                throw e;
+            } catch (IOException e) {
+                ApiError error = ApiError.fromThrowable(e);
+                if (!canRetry || chain.call().isCanceled() || !error.isRetryable()) {
+                    throw e;
+                }
+                sleep(attempt, ApiError.NO_RETRY_AFTER, e);
+                continue;
+            }
+            
+            ApiError error = ApiError.classify(response);
+            if (error == null) {
+                return response;
+            }
+            if (error.getKind() == ApiError.Kind.CLOUDFLARE_CHALLENGE) {
+                response.close();
+                throw new ApiException(error);
+            }
+            long retryAfter = error.getRetryAfterMillis();
+            if (!canRetry || !error.isRetryable() || retryAfter > MAX_DELAY_MS) {
+                return response;
+            }
+            response.close();
+            sleep(attempt, retryAfter, null);
+        }
+    }
+    
+    /**
+     * Задержка перед повтором: случайная в [0, min(MAX, BASE * 2^attempt)], но не меньше Retry-After
+     */
+    static long backoffDelay(int attempt, long retryAfterMillis) {
+        long cap = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << attempt);
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        return Math.max(delay, retryAfterMillis);
+    }
+    
+    private static void sleep(int attempt, long retryAfterMillis, IOException cause) throws IOException {
+        long delay = backoffDelay(attempt, retryAfterMillis);
+        Log.d(TAG, "Retry #" + (attempt + 1) + " in " + delay + " ms"
+                + (cause != null ? " after " + cause.getClass().getSimpleName() : ""));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause != null ? cause : new IOException("Retry interrupted", e);
+        }
+    }
+}
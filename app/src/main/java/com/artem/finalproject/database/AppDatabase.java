@@ -1,16 +1,21 @@
 package com.artem.finalproject.database;
 
 import android.content.Context;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.artem.finalproject.utils.AppExecutors;
 import com.artem.finalproject.database.dao.AppSettingsDao;
+import com.artem.finalproject.database.dao.ArticleFtsDao;
 import com.artem.finalproject.database.dao.CachedArticleDao;
 import com.artem.finalproject.database.dao.CategoryDao;
 import com.artem.finalproject.database.dao.FavoriteArticleDao;
 import com.artem.finalproject.database.dao.NotificationDao;
 import com.artem.finalproject.database.dao.SearchHistoryDao;
 import com.artem.finalproject.database.entity.AppSettings;
+import com.artem.finalproject.database.entity.ArticleFts;
 import com.artem.finalproject.database.entity.CachedArticle;
 import com.artem.finalproject.database.entity.Category;
 import com.artem.finalproject.database.entity.FavoriteArticle;
@@ -18,7 +23,8 @@ import com.artem.finalproject.database.entity.NotificationItem;
 import com.artem.finalproject.database.entity.SearchHistory;
 
 /**
- * База данных Room с 6 таблицами
+ * База данных Room с 6 таблицами и полнотекстовым индексом по статьям.
+ * Схема каждой версии выгружается в app/schemas, изменения схемы идут только через Migrations.
  */
 @Database(
     entities = {
@@ -27,12 +33,15 @@ import com.artem.finalproject.database.entity.SearchHistory;
         Category.class,
         AppSettings.class,
         NotificationItem.class,
-        CachedArticle.class
+        CachedArticle.class,
+        ArticleFts.class
     },
-    version = 1,
-    exportSchema = false
+    version = 6,
+    exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
+    static final String DATABASE_NAME = "news_database";
+    
     private static AppDatabase instance;
     
     public abstract FavoriteArticleDao favoriteArticleDao();
@@ -41,15 +50,36 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract AppSettingsDao appSettingsDao();
     public abstract NotificationDao notificationDao();
     public abstract CachedArticleDao cachedArticleDao();
+    public abstract ArticleFtsDao articleFtsDao();
     
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
-            instance = Room.databaseBuilder(
-                    context.getApplicationContext(),
-                    AppDatabase.class,
-                    "news_database"
-            ).build();
+            instance = create(context, DATABASE_NAME);
         }
         return instance;
     }
+    
+    static AppDatabase create(Context context, String name) {
+        return builder(context, name).build();
+    }
+    
+    /**
+     * Настройки базы приложения; тесты открывают так же свой файл
+     */
+    static Builder<AppDatabase> builder(Context context, String name) {
+        AppExecutors executors = AppExecutors.getInstance();
+        return Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class, name)
+                // WAL: чтение ленты не ждет, пока пишется кэш
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(executors.diskIO())
+                .setTransactionExecutor(executors.diskIO())
+                .addMigrations(Migrations.ALL)
+                .addCallback(new Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        // Триггеры Room не создает сам: на новой базе ставим их здесь, на старой - в миграции
+                        ArticleFtsTriggers.create(db);
+                    }
+                });
+    }
 }
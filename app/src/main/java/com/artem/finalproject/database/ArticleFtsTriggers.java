@@ -0,0 +1,62 @@
+package com.artem.finalproject.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Триггеры, которые держат article_fts в синхронизации с cached_articles и favorite_articles.
+ * Строка кэша попадает в индекс с rowid исходной строки, избранная статья - с -id,
+ * поэтому удаление и обновление находят строку индекса по rowid без сканирования.
+ */
+final class ArticleFtsTriggers {
+    private static final String FTS_COLUMNS = "rowid, url, urlToImage, publishedAt, title, description, sourceName";
+    
+    private static final String[] TRIGGERS = {
+            // INSERT OR REPLACE удаляет старую строку без DELETE-триггеров,
+            // поэтому запись индекса для той же (query, url) убирается до вставки
+            "CREATE TRIGGER IF NOT EXISTS `cached_articles_fts_bi` BEFORE INSERT ON `cached_articles` BEGIN "
+                    + "DELETE FROM `article_fts` WHERE rowid = (SELECT rowid FROM `cached_articles` "
+                    + "WHERE `query` = new.`query` AND `url` = new.`url`); END",
+            "CREATE TRIGGER IF NOT EXISTS `cached_articles_fts_ai` AFTER INSERT ON `cached_articles` BEGIN "
+                    + "INSERT INTO `article_fts` (" + FTS_COLUMNS + ") VALUES (new.rowid, new.`url`, "
+                    + "new.`urlToImage`, new.`publishedAt`, new.`title`, new.`description`, new.`sourceName`); END",
+            "CREATE TRIGGER IF NOT EXISTS `cached_articles_fts_ad` AFTER DELETE ON `cached_articles` BEGIN "
+                    + "DELETE FROM `article_fts` WHERE rowid = old.rowid; END",
+            "CREATE TRIGGER IF NOT EXISTS `cached_articles_fts_au` AFTER UPDATE OF "
+                    + "`url`, `urlToImage`, `publishedAt`, `title`, `description`, `sourceName` ON `cached_articles` BEGIN "
+                    + "DELETE FROM `article_fts` WHERE rowid = old.rowid; "
+                    + "INSERT INTO `article_fts` (" + FTS_COLUMNS + ") VALUES (new.rowid, new.`url`, "
+                    + "new.`urlToImage`, new.`publishedAt`, new.`title`, new.`description`, new.`sourceName`); END",
+            "CREATE TRIGGER IF NOT EXISTS `favorite_articles_fts_ai` AFTER INSERT ON `favorite_articles` BEGIN "
+                    + "INSERT INTO `article_fts` (" + FTS_COLUMNS + ") VALUES (-new.`id`, new.`url`, "
+                    + "new.`urlToImage`, new.`publishedAt`, new.`title`, new.`description`, new.`sourceName`); END",
+            "CREATE TRIGGER IF NOT EXISTS `favorite_articles_fts_ad` AFTER DELETE ON `favorite_articles` BEGIN "
+                    + "DELETE FROM `article_fts` WHERE rowid = -old.`id`; END",
+            "CREATE TRIGGER IF NOT EXISTS `favorite_articles_fts_au` AFTER UPDATE OF "
+                    + "`url`, `urlToImage`, `publishedAt`, `title`, `description`, `sourceName` ON `favorite_articles` BEGIN "
+                    + "DELETE FROM `article_fts` WHERE rowid = -old.`id`; "
+                    + "INSERT INTO `article_fts` (" + FTS_COLUMNS + ") VALUES (-new.`id`, new.`url`, "
+                    + "new.`urlToImage`, new.`publishedAt`, new.`title`, new.`description`, new.`sourceName`); END"
+    };
+    
+    private ArticleFtsTriggers() {
+    }
+    
+    static void create(SupportSQLiteDatabase db) {
+        for (String sql : TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+    
+    /**
+     * Заново заполнить индекс из таблиц (после миграции, когда триггеров еще не было)
+     */
+    static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM `article_fts`");
+        db.execSQL("INSERT INTO `article_fts` (" + FTS_COLUMNS + ") "
+                + "SELECT rowid, `url`, `urlToImage`, `publishedAt`, `title`, `description`, `sourceName` "
+                + "FROM `cached_articles`");
+        db.execSQL("INSERT INTO `article_fts` (" + FTS_COLUMNS + ") "
+                + "SELECT -`id`, `url`, `urlToImage`, `publishedAt`, `title`, `description`, `sourceName` "
+                + "FROM `favorite_articles`");
+    }
+}
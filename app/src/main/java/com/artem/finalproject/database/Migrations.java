@@ -0,0 +1,133 @@
+package com.artem.finalproject.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Миграции схемы news_database.
+ * Имена индексов совпадают с теми, что генерирует Room (index_<таблица>_<колонки>),
+ * иначе проверка схемы при открытии базы не пройдет.
+ */
+public final class Migrations {
+    
+    /**
+     * 1 -> 2: индексы под запросы DAO
+     */
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_query_cachedAt_url` "
+                    + "ON `cached_articles` (`query`, `cachedAt`, `url`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_cachedAt` "
+                    + "ON `cached_articles` (`cachedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_favorite_articles_url` "
+                    + "ON `favorite_articles` (`url`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_notifications_isRead_createdAt` "
+                    + "ON `notifications` (`isRead`, `createdAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_search_history_searchedAt` "
+                    + "ON `search_history` (`searchedAt`)");
+        }
+    };
+    
+    /**
+     * 2 -> 3: полнотекстовый поиск по кэшу и избранному.
+     * SQL таблицы совпадает с тем, что Room генерирует для ArticleFts.
+     */
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `article_fts` USING FTS4("
+                    + "`url` TEXT, `urlToImage` TEXT, `publishedAt` TEXT, `title` TEXT, `description` TEXT, "
+                    + "`sourceName` TEXT, tokenize=unicode61, "
+                    + "notindexed=`url`, notindexed=`urlToImage`, notindexed=`publishedAt`)");
+            ArticleFtsTriggers.rebuild(db);
+            ArticleFtsTriggers.create(db);
+        }
+    };
+    
+    /**
+     * 3 -> 4: url в избранном уникален. Из дублей остается самая ранняя запись,
+     * триггеры article_fts убирают из индекса удаленные копии.
+     */
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DELETE FROM `favorite_articles` WHERE `url` IS NOT NULL AND `id` NOT IN ("
+                    + "SELECT MIN(`id`) FROM `favorite_articles` WHERE `url` IS NOT NULL GROUP BY `url`)");
+            db.execSQL("DROP INDEX IF EXISTS `index_favorite_articles_url`");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_favorite_articles_url` "
+                    + "ON `favorite_articles` (`url`)");
+        }
+    };
+    
+    /**
+     * 4 -> 5: время последнего чтения и размер строк кэша для LRU-вытеснения.
+     * Старые строки считаются прочитанными в момент кэширования; размер считается
+     * так же, как CacheGovernor.sizeOf (байты UTF-8). Триггер article_fts на UPDATE
+     * срабатывает только на текстовые колонки, поэтому индекс не перестраивается.
+     */
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `cached_articles` ADD COLUMN `lastAccessedAt` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `cached_articles` ADD COLUMN `sizeBytes` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `cached_articles` SET `lastAccessedAt` = `cachedAt`, `sizeBytes` = "
+                    + "IFNULL(LENGTH(CAST(`url` AS BLOB)), 0) + IFNULL(LENGTH(CAST(`title` AS BLOB)), 0) "
+                    + "+ IFNULL(LENGTH(CAST(`description` AS BLOB)), 0) + IFNULL(LENGTH(CAST(`urlToImage` AS BLOB)), 0) "
+                    + "+ IFNULL(LENGTH(CAST(`author` AS BLOB)), 0) + IFNULL(LENGTH(CAST(`publishedAt` AS BLOB)), 0) "
+                    + "+ IFNULL(LENGTH(CAST(`sourceName` AS BLOB)), 0) + IFNULL(LENGTH(CAST(`query` AS BLOB)), 0)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_query_lastAccessedAt` "
+                    + "ON `cached_articles` (`query`, `lastAccessedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_lastAccessedAt` "
+                    + "ON `cached_articles` (`lastAccessedAt`)");
+        }
+    };
+    
+    /**
+     * 5 -> 6: ключ кэша (query, url) вместо url - статья, попавшая в две ленты,
+     * больше не переезжает из одной в другую. SQLite не меняет первичный ключ
+     * через ALTER, поэтому таблица пересоздается. Триггеры article_fts удаляются
+     * вместе со старой таблицей; после переноса индекс перестраивается и триггеры создаются заново.
+     */
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cached_articles_new` (`url` TEXT NOT NULL, `title` TEXT, "
+                    + "`description` TEXT, `urlToImage` TEXT, `author` TEXT, `publishedAt` TEXT, "
+                    + "`sourceName` TEXT, `query` TEXT NOT NULL, `cachedAt` INTEGER NOT NULL, "
+                    + "`lastAccessedAt` INTEGER NOT NULL DEFAULT 0, `sizeBytes` INTEGER NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY(`query`, `url`))");
+            db.execSQL("INSERT INTO `cached_articles_new` (rowid, `url`, `title`, `description`, `urlToImage`, "
+                    + "`author`, `publishedAt`, `sourceName`, `query`, `cachedAt`, `lastAccessedAt`, `sizeBytes`) "
+                    + "SELECT rowid, `url`, `title`, `description`, `urlToImage`, `author`, `publishedAt`, "
+                    + "`sourceName`, IFNULL(`query`, ''), `cachedAt`, `lastAccessedAt`, `sizeBytes` "
+                    + "FROM `cached_articles`");
+            db.execSQL("DROP TABLE `cached_articles`");
+            db.execSQL("ALTER TABLE `cached_articles_new` RENAME TO `cached_articles`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_query_cachedAt_url` "
+                    + "ON `cached_articles` (`query`, `cachedAt`, `url`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_cachedAt` "
+                    + "ON `cached_articles` (`cachedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_query_lastAccessedAt` "
+                    + "ON `cached_articles` (`query`, `lastAccessedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_lastAccessedAt` "
+                    + "ON `cached_articles` (`lastAccessedAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cached_articles_url` "
+                    + "ON `cached_articles` (`url`)");
+            ArticleFtsTriggers.rebuild(db);
+            ArticleFtsTriggers.create(db);
+        }
+    };
+    
+    public static final Migration[] ALL = {
+            MIGRATION_1_2,
+            MIGRATION_2_3,
+            MIGRATION_3_4,
+            MIGRATION_4_5,
+            MIGRATION_5_6
+    };
+    
+    private Migrations() {
+    }
+}
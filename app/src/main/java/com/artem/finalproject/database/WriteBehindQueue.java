@@ -0,0 +1,210 @@
+package com.artem.finalproject.database;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.artem.finalproject.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отложенная запись в Room. Мелкие записи (история поиска, избранное, кэш ленты)
+ * копятся WINDOW_MS и выполняются пачкой в одной транзакции - один fsync вместо десятков.
+ * Запись с тем же ключом заменяет ожидающую: повторные нажатия "в избранное"
+ * по одной статье превращаются в одну запись итогового состояния.
+ * Очередь сбрасывается, когда приложение уходит в фон (TRIM_MEMORY_UI_HIDDEN),
+ * и при явном flush() - например, при закрытии главного экрана.
+ * Чтение, которое должно видеть свои же отложенные записи, вызывает flushNow().
+ */
+public class WriteBehindQueue implements ComponentCallbacks2 {
+    private static final String TAG = "WriteBehindQueue";
+    
+    static final long WINDOW_MS = 500;
+    // При таком числе ожидающих записей не ждем конца окна
+    static final int MAX_BATCH = 64;
+    
+    private static WriteBehindQueue instance;
+    
+    private final AppDatabase database;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final Handler mainHandler;
+    private final Runnable flushTask = this::flush;
+    
+    private final Object lock = new Object();
+    private final Object drainLock = new Object();
+    private final Map<Object, Pending> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    
+    /**
+     * Запись, выполняемая внутри общей транзакции
+     */
+    public interface Write {
+        void apply(AppDatabase db);
+    }
+    
+    private static final class Pending {
+        final Write write;
+        final List<Runnable> callbacks = new ArrayList<>(1);
+        
+        Pending(Write write) {
+            this.write = write;
+        }
+    }
+    
+    WriteBehindQueue(AppDatabase database) {
+        this.database = database;
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+    
+    public static synchronized WriteBehindQueue getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            instance = new WriteBehindQueue(AppDatabase.getInstance(appContext));
+            appContext.registerComponentCallbacks(instance);
+        }
+        return instance;
+    }
+    
+    /**
+     * Запись без ключа: выполняется всегда, в порядке добавления
+     */
+    public void enqueue(Write write) {
+        enqueue(null, write, null);
+    }
+    
+    public void enqueue(String key, Write write) {
+        enqueue(key, write, null);
+    }
+    
+    /**
+     * Добавить запись. Ожидающая запись с тем же key отбрасывается, новая встает в конец очереди.
+     * onWritten (если задан) вызывается на главном потоке после записи пачки,
+     * в том числе для замененных записей и для записи, которая не удалась.
+     */
+    public void enqueue(String key, Write write, Runnable onWritten) {
+        boolean full;
+        synchronized (lock) {
+            Object slot = key != null ? key : new Object();
+            Pending entry = new Pending(write);
+            Pending replaced = pending.remove(slot);
+            if (replaced != null) {
+                entry.callbacks.addAll(replaced.callbacks);
+            }
+            if (onWritten != null) {
+                entry.callbacks.add(onWritten);
+            }
+            pending.put(slot, entry);
+            
+            full = pending.size() >= MAX_BATCH;
+            if (!full && !scheduled) {
+                scheduled = true;
+                mainHandler.postDelayed(flushTask, WINDOW_MS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+    
+    /**
+     * Записать все ожидающее сейчас, не дожидаясь конца окна
+     */
+    public void flush() {
+        synchronized (lock) {
+            scheduled = false;
+            mainHandler.removeCallbacks(flushTask);
+            if (pending.isEmpty()) {
+                return;
+            }
+        }
+        if (!dbExecutor.execute(AppExecutors.PRIORITY_NORMAL, this::drain)) {
+            // Очередь базы переполнена - повторим через окно, записи остаются в pending
+            synchronized (lock) {
+                if (!scheduled) {
+                    scheduled = true;
+                    mainHandler.postDelayed(flushTask, WINDOW_MS);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Записать все ожидающее на текущем (фоновом) потоке и дождаться коммита.
+     * Если пачку уже пишет другой поток, вызов ждет ее окончания.
+     */
+    public void flushNow() {
+        synchronized (lock) {
+            scheduled = false;
+            mainHandler.removeCallbacks(flushTask);
+        }
+        drain();
+    }
+    
+    /**
+     * Пачки пишутся строго по одной (drainLock): у пула два потока, и без этого
+     * пачка, забранная позже, могла бы закоммититься раньше.
+     * Методы DAO открывают вложенную транзакцию, и сбой любого из них откатывает всю
+     * общую транзакцию. Поэтому после отката записи пачки повторяются по одной,
+     * каждая в своей транзакции: упавшая теряется одна, остальные сохраняются.
+     */
+    private void drain() {
+        synchronized (drainLock) {
+            List<Pending> batch;
+            synchronized (lock) {
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                database.runInTransaction(() -> {
+                    for (Pending entry : batch) {
+                        entry.write.apply(database);
+                    }
+                });
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Batch rolled back, writing entries one by one", e);
+                for (Pending entry : batch) {
+                    try {
+                        database.runInTransaction(() -> entry.write.apply(database));
+                    } catch (RuntimeException failed) {
+                        Log.e(TAG, "Write failed", failed);
+                    }
+                }
+            }
+            // Колбэки упавших записей тоже вызываются: экран не должен ждать вечно
+            for (Pending entry : batch) {
+                for (Runnable callback : entry.callbacks) {
+                    mainHandler.post(callback);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            flush();
+        }
+    }
+    
+    @Override
+    public void onLowMemory() {
+        flush();
+    }
+    
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
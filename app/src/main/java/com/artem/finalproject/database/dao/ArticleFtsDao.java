@@ -0,0 +1,45 @@
+package com.artem.finalproject.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.artem.finalproject.database.entity.ArticleFts;
+import java.util.List;
+
+@Dao
+public interface ArticleFtsDao {
+    /**
+     * Все совпадения по MATCH-выражению: rowid, url, дата и matchinfo('pcnalx') для ранжирования BM25.
+     * LIMIT здесь нет: SQLite отрезал бы строки до ранжирования, и лучшие статьи могли не попасть
+     * в выдачу. Тексты статей не читаются - их загружает getByRowIds только для итоговой страницы.
+     */
+    @Query("SELECT rowid AS rowId, url, publishedAt, matchinfo(article_fts, 'pcnalx') AS matchInfo "
+            + "FROM article_fts WHERE article_fts MATCH :match")
+    List<Candidate> searchCandidates(String match);
+    
+    /**
+     * Строки индекса по rowid (поиск по rowid в FTS4 идет без сканирования); порядок не определен
+     */
+    @Query("SELECT rowid, url, urlToImage, publishedAt, title, description, sourceName "
+            + "FROM article_fts WHERE rowid IN (:rowIds)")
+    List<ArticleFts> getByRowIds(List<Long> rowIds);
+    
+    @Query("SELECT COUNT(*) FROM article_fts")
+    int count();
+    
+    /**
+     * Совпадение до ранжирования: ключ строки и статистика совпадений по колонкам
+     */
+    class Candidate {
+        public long rowId;
+        public String url;
+        public String publishedAt;
+        public byte[] matchInfo;
+        
+        /**
+         * Избранные статьи лежат в индексе с rowid = -id
+         */
+        public boolean isFavorite() {
+            return rowId < 0;
+        }
+    }
+}
@@ -1,32 +1,110 @@
 package com.artem.finalproject.database.dao;
 
 import androidx.room.Dao;
-import androidx.room.Insert;
 import androidx.room.Query;
 import androidx.room.Delete;
+import androidx.room.Transaction;
+import androidx.room.Upsert;
 import com.artem.finalproject.database.entity.CachedArticle;
 import java.util.List;
 
 @Dao
 public interface CachedArticleDao {
-    @Query("SELECT * FROM cached_articles WHERE query = :query ORDER BY cachedAt DESC")
-    List<CachedArticle> getByQuery(String query);
+    /**
+     * Keyset-пагинация ленты: страница строго после (cachedAt, url) последней прочитанной статьи.
+     * Для первой страницы передается cachedAt = Long.MAX_VALUE и пустой url.
+     */
+    @Query("SELECT * FROM cached_articles WHERE query = :query "
+            + "AND (cachedAt < :afterCachedAt OR (cachedAt = :afterCachedAt AND url < :afterUrl)) "
+            + "ORDER BY cachedAt DESC, url DESC LIMIT :limit")
+    List<CachedArticle> getPageAfter(String query, long afterCachedAt, String afterUrl, int limit);
     
-    @Query("SELECT * FROM cached_articles WHERE url = :url")
-    CachedArticle getByUrl(String url);
+    @Query("SELECT * FROM cached_articles WHERE query = :query AND url = :url")
+    CachedArticle get(String query, String url);
     
-    @Query("SELECT * FROM cached_articles ORDER BY cachedAt DESC")
-    List<CachedArticle> getAll();
+    /**
+     * Сколько лент держат статью с этим url
+     */
+    @Query("SELECT COUNT(*) FROM cached_articles WHERE url = :url")
+    int countByUrl(String url);
     
-    @Insert
-    void insert(CachedArticle article);
+    /**
+     * Вставка или обновление по (query, url). В отличие от REPLACE строка не удаляется и не
+     * вставляется заново: rowid и запись в article_fts остаются на месте.
+     */
+    @Upsert
+    void upsert(CachedArticle article);
+    
+    /**
+     * Вся страница пишется одной транзакцией
+     */
+    @Upsert
+    void upsertAll(List<CachedArticle> articles);
+    
+    /**
+     * Заменить ленту query новой первой страницей атомарно: читатель не увидит пустую ленту
+     */
+    @Transaction
+    default void replaceQuery(String query, List<CachedArticle> articles) {
+        deleteByQuery(query);
+        upsertAll(articles);
+    }
     
     @Delete
     void delete(CachedArticle article);
     
+    @Query("DELETE FROM cached_articles WHERE query = :query")
+    void deleteByQuery(String query);
+    
     @Query("DELETE FROM cached_articles WHERE cachedAt < :timestamp")
     void deleteOld(long timestamp);
     
     @Query("DELETE FROM cached_articles")
     void deleteAll();
+    
+    /**
+     * Отметить чтение статей из кэша. Колонки article_fts не меняются, индекс не трогается.
+     */
+    @Query("UPDATE cached_articles SET lastAccessedAt = :accessedAt WHERE query = :query AND url IN (:urls)")
+    void touch(String query, List<String> urls, long accessedAt);
+    
+    /**
+     * Число строк и объем кэша по каждой ленте
+     */
+    @Query("SELECT query, COUNT(*) AS rowCount, IFNULL(SUM(sizeBytes), 0) AS totalBytes "
+            + "FROM cached_articles GROUP BY query")
+    List<CacheStats> getQueryStats();
+    
+    /**
+     * То же по всему кэшу (query в результате не заполняется)
+     */
+    @Query("SELECT COUNT(*) AS rowCount, IFNULL(SUM(sizeBytes), 0) AS totalBytes FROM cached_articles")
+    CacheStats getTotalStats();
+    
+    /**
+     * Удалить до limit статей, которые не читали с before
+     */
+    @Query("DELETE FROM cached_articles WHERE rowid IN ("
+            + "SELECT rowid FROM cached_articles WHERE lastAccessedAt < :before LIMIT :limit)")
+    int evictIdle(long before, int limit);
+    
+    /**
+     * Удалить limit давно не читанных статей ленты query
+     */
+    @Query("DELETE FROM cached_articles WHERE rowid IN ("
+            + "SELECT rowid FROM cached_articles WHERE query = :query ORDER BY lastAccessedAt LIMIT :limit)")
+    int evictLeastRecentInQuery(String query, int limit);
+    
+    /**
+     * Удалить limit давно не читанных статей из всего кэша
+     */
+    @Query("DELETE FROM cached_articles WHERE rowid IN ("
+            + "SELECT rowid FROM cached_articles ORDER BY lastAccessedAt LIMIT :limit)")
+    int evictLeastRecent(int limit);
+    
+    class CacheStats {
+        public String query;
+        public int rowCount;
+        public long totalBytes;
+    }
 }
@@ -1,8 +1,10 @@
 package com.artem.finalproject.database.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 import com.artem.finalproject.database.entity.FavoriteArticle;
@@ -19,8 +21,31 @@ public interface FavoriteArticleDao {
     @Query("SELECT * FROM favorite_articles WHERE url = :url")
     FavoriteArticle getByUrl(String url);
     
-    @Insert
-    void insert(FavoriteArticle article);
+    /**
+     * Только url: для индекса избранного в памяти (покрывается индексом по url)
+     */
+    @Query("SELECT url FROM favorite_articles WHERE url IS NOT NULL")
+    List<String> getAllUrls();
+    
+    /**
+     * Число избранных; Room перезапускает запрос при каждом изменении таблицы
+     */
+    @Query("SELECT COUNT(*) FROM favorite_articles")
+    LiveData<Integer> observeCount();
+    
+    /**
+     * Источники, из которых чаще всего сохраняют статьи
+     */
+    @Query("SELECT sourceName, COUNT(*) AS articleCount FROM favorite_articles "
+            + "WHERE sourceName IS NOT NULL AND sourceName != '' "
+            + "GROUP BY sourceName ORDER BY articleCount DESC, sourceName LIMIT :limit")
+    LiveData<List<SourceCount>> observeTopSources(int limit);
+    
+    /**
+     * Повторное добавление того же url игнорируется; возвращает id или -1, если статья уже есть
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(FavoriteArticle article);
     
     @Update
     void update(FavoriteArticle article);
@@ -31,6 +56,14 @@ public interface FavoriteArticleDao {
     @Query("DELETE FROM favorite_articles WHERE id = :id")
     void deleteById(long id);
     
+    @Query("DELETE FROM favorite_articles WHERE url = :url")
+    void deleteByUrl(String url);
+    
     @Query("DELETE FROM favorite_articles")
     void deleteAll();
+    
+    class SourceCount {
+        public String sourceName;
+        public int articleCount;
+    }
 }
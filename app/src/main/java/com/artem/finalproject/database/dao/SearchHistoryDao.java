@@ -1,5 +1,6 @@
 package com.artem.finalproject.database.dao;
 
+import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
@@ -9,12 +10,33 @@ import java.util.List;
 
 @Dao
 public interface SearchHistoryDao {
+    // Вынесен в константу, чтобы тест плана запроса проверял тот же SQL
+    String SEARCHES_PER_DAY = "SELECT (searchedAt + :utcOffset) / 86400000 AS day, COUNT(*) AS searchCount "
+            + "FROM search_history WHERE searchedAt >= :since GROUP BY day ORDER BY day DESC";
+    
     @Query("SELECT * FROM search_history ORDER BY searchedAt DESC LIMIT :limit")
     List<SearchHistory> getRecent(int limit);
     
     @Query("SELECT * FROM search_history ORDER BY searchedAt DESC")
     List<SearchHistory> getAll();
     
+    /**
+     * По строке на каждый запрос: сколько раз искали и когда последний раз
+     */
+    @Query("SELECT query, COUNT(*) AS searchCount, MAX(searchedAt) AS lastSearchedAt "
+            + "FROM search_history WHERE query IS NOT NULL GROUP BY query")
+    List<QueryStats> getQueryStats();
+    
+    @Query("SELECT COUNT(*) FROM search_history")
+    LiveData<Integer> observeCount();
+    
+    /**
+     * Число поисков по дням начиная с since. day - номер дня от эпохи в местном времени
+     * (utcOffset - смещение часового пояса в мс); диапазон берется по индексу searchedAt.
+     */
+    @Query(SEARCHES_PER_DAY)
+    LiveData<List<DayCount>> observeSearchesPerDay(long since, long utcOffset);
+    
     @Insert
     void insert(SearchHistory history);
     
@@ -23,4 +45,15 @@ public interface SearchHistoryDao {
     
     @Query("DELETE FROM search_history")
     void deleteAll();
+    
+    class QueryStats {
+        public String query;
+        public int searchCount;
+        public long lastSearchedAt;
+    }
+    
+    class DayCount {
+        public long day;
+        public int searchCount;
+    }
 }
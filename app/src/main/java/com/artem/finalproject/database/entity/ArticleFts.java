@@ -0,0 +1,94 @@
+package com.artem.finalproject.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * Полнотекстовый индекс (FTS4) по кэшированным и избранным статьям.
+ * Заполняется триггерами на cached_articles и favorite_articles (см. ArticleFtsTriggers):
+ * rowid = rowid строки кэша или -id избранной статьи.
+ * Ищем по title, description и sourceName, остальные колонки только хранятся для выдачи.
+ */
+@Fts4(
+    tokenizer = FtsOptions.TOKENIZER_UNICODE61,
+    notIndexed = {"url", "urlToImage", "publishedAt"}
+)
+@Entity(tableName = "article_fts")
+public class ArticleFts {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+    
+    private String url;
+    private String urlToImage;
+    private String publishedAt;
+    private String title;
+    private String description;
+    private String sourceName;
+    
+    public long getRowId() {
+        return rowId;
+    }
+    
+    public void setRowId(long rowId) {
+        this.rowId = rowId;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getUrlToImage() {
+        return urlToImage;
+    }
+    
+    public void setUrlToImage(String urlToImage) {
+        this.urlToImage = urlToImage;
+    }
+    
+    public String getPublishedAt() {
+        return publishedAt;
+    }
+    
+    public void setPublishedAt(String publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getSourceName() {
+        return sourceName;
+    }
+    
+    public void setSourceName(String sourceName) {
+        this.sourceName = sourceName;
+    }
+    
+    /**
+     * Строка пришла из избранного, а не из кэша ленты
+     */
+    public boolean isFavorite() {
+        return rowId < 0;
+    }
+}
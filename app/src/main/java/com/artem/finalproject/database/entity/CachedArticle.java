@@ -1,15 +1,31 @@
 package com.artem.finalproject.database.entity;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
-import androidx.room.PrimaryKey;
+import androidx.room.Index;
 
 /**
- * Таблица кэшированных новостей
+ * Таблица кэшированных новостей.
+ * Одна статья может быть сразу в нескольких лентах, поэтому ключ - (query, url).
  */
-@Entity(tableName = "cached_articles")
+@Entity(
+    tableName = "cached_articles",
+    primaryKeys = {"query", "url"},
+    indices = {
+        // Keyset-пагинация ленты: WHERE query = ? ORDER BY cachedAt DESC, url DESC
+        @Index(value = {"query", "cachedAt", "url"}),
+        // Очистка устаревшего кэша: WHERE cachedAt < ?
+        @Index(value = {"cachedAt"}),
+        // Вытеснение давно не читанных статей ленты: WHERE query = ? ORDER BY lastAccessedAt
+        @Index(value = {"query", "lastAccessedAt"}),
+        // То же по всему кэшу
+        @Index(value = {"lastAccessedAt"}),
+        // Поиск статьи по url во всех лентах
+        @Index(value = {"url"})
+    }
+)
 public class CachedArticle {
-    @PrimaryKey
     @NonNull
     private String url;
     
@@ -19,11 +35,20 @@ public class CachedArticle {
     private String author;
     private String publishedAt;
     private String sourceName;
-    private String query;
+    // Ключ ленты (заголовки категории или поисковый запрос)
+    @NonNull
+    private String query = "";
     private long cachedAt;
+    // Когда статью последний раз показывали из кэша (для LRU-вытеснения)
+    @ColumnInfo(defaultValue = "0")
+    private long lastAccessedAt;
+    // Примерный размер строки: сумма длин текстовых полей в байтах UTF-8
+    @ColumnInfo(defaultValue = "0")
+    private long sizeBytes;
     
     public CachedArticle() {
         this.cachedAt = System.currentTimeMillis();
+        this.lastAccessedAt = cachedAt;
     }
     
     @NonNull
@@ -83,11 +108,12 @@ public class CachedArticle {
         this.sourceName = sourceName;
     }
     
+    @NonNull
     public String getQuery() {
         return query;
     }
     
-    public void setQuery(String query) {
+    public void setQuery(@NonNull String query) {
         this.query = query;
     }
     
@@ -98,4 +124,20 @@ public class CachedArticle {
     public void setCachedAt(long cachedAt) {
         this.cachedAt = cachedAt;
     }
+    
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+    
+    public void setLastAccessedAt(long lastAccessedAt) {
+        this.lastAccessedAt = lastAccessedAt;
+    }
+    
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+    
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
 }
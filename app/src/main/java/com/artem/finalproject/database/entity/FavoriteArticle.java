@@ -1,12 +1,19 @@
 package com.artem.finalproject.database.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Таблица избранных новостей
  */
-@Entity(tableName = "favorite_articles")
+@Entity(
+    tableName = "favorite_articles",
+    indices = {
+        // Проверка "в избранном ли статья": WHERE url = ?; одна статья - одна запись
+        @Index(value = {"url"}, unique = true)
+    }
+)
 public class FavoriteArticle {
     @PrimaryKey(autoGenerate = true)
     private long id;
@@ -1,12 +1,19 @@
 package com.artem.finalproject.database.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Таблица уведомлений
  */
-@Entity(tableName = "notifications")
+@Entity(
+    tableName = "notifications",
+    indices = {
+        // Непрочитанные уведомления: WHERE isRead = 0 ORDER BY createdAt DESC
+        @Index(value = {"isRead", "createdAt"})
+    }
+)
 public class NotificationItem {
     @PrimaryKey(autoGenerate = true)
     private long id;
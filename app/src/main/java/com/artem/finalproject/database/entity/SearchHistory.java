@@ -1,12 +1,19 @@
 package com.artem.finalproject.database.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * Таблица истории поиска
  */
-@Entity(tableName = "search_history")
+@Entity(
+    tableName = "search_history",
+    indices = {
+        // Последние запросы: ORDER BY searchedAt DESC LIMIT ?
+        @Index(value = {"searchedAt"})
+    }
+)
 public class SearchHistory {
     @PrimaryKey(autoGenerate = true)
     private long id;
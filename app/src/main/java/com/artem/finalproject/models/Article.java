@@ -1,12 +1,18 @@
 package com.artem.finalproject.models;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.core.os.ParcelCompat;
+
+import com.artem.finalproject.utils.DateFormatter;
 import com.google.gson.annotations.SerializedName;
-import java.io.Serializable;
 
 /**
- * Модель статьи новости
+ * Модель статьи новости.
+ * Передается в DetailActivity через Parcelable (без Java-сериализации).
  */
-public class Article implements Serializable {
+public class Article implements Parcelable {
     @SerializedName("source")
     private Source source;
     
@@ -34,9 +40,58 @@ public class Article implements Serializable {
     // Флаг для избранных новостей
     private boolean isFavorite = false;
     
+    // Разобранная дата публикации и готовые строки для списков (не сериализуются)
+    private transient long publishedAtMillis = DateFormatter.NOT_PARSED;
+    private transient String absoluteDate;
+    private transient int absoluteDateZone;
+    private transient String relativeDate;
+    private transient long relativeDateBucket;
+    
     public Article() {
     }
     
+    protected Article(Parcel in) {
+        source = ParcelCompat.readParcelable(in, Source.class.getClassLoader(), Source.class);
+        author = in.readString();
+        title = in.readString();
+        description = in.readString();
+        url = in.readString();
+        urlToImage = in.readString();
+        publishedAt = in.readString();
+        content = in.readString();
+        isFavorite = in.readByte() != 0;
+    }
+    
+    public static final Creator<Article> CREATOR = new Creator<Article>() {
+        @Override
+        public Article createFromParcel(Parcel in) {
+            return new Article(in);
+        }
+        
+        @Override
+        public Article[] newArray(int size) {
+            return new Article[size];
+        }
+    };
+    
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeParcelable(source, flags);
+        dest.writeString(author);
+        dest.writeString(title);
+        dest.writeString(description);
+        dest.writeString(url);
+        dest.writeString(urlToImage);
+        dest.writeString(publishedAt);
+        dest.writeString(content);
+        dest.writeByte((byte) (isFavorite ? 1 : 0));
+    }
+    
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+    
     public Source getSource() {
         return source;
     }
@@ -91,6 +146,45 @@ public class Article implements Serializable {
     
     public void setPublishedAt(String publishedAt) {
         this.publishedAt = publishedAt;
+        this.publishedAtMillis = DateFormatter.NOT_PARSED;
+        this.absoluteDate = null;
+        this.relativeDate = null;
+    }
+    
+    /**
+     * Дата публикации в миллисекундах UTC, разбирается один раз
+     */
+    public long getPublishedAtMillis() {
+        if (publishedAtMillis == DateFormatter.NOT_PARSED) {
+            publishedAtMillis = DateFormatter.parseIso8601(publishedAt);
+        }
+        return publishedAtMillis;
+    }
+    
+    public String getAbsoluteDate() {
+        return absoluteDate;
+    }
+    
+    public int getAbsoluteDateZone() {
+        return absoluteDateZone;
+    }
+    
+    public void setAbsoluteDate(String absoluteDate, int zone) {
+        this.absoluteDate = absoluteDate;
+        this.absoluteDateZone = zone;
+    }
+    
+    public String getRelativeDate() {
+        return relativeDate;
+    }
+    
+    public long getRelativeDateBucket() {
+        return relativeDateBucket;
+    }
+    
+    public void setRelativeDate(String relativeDate, long bucket) {
+        this.relativeDate = relativeDate;
+        this.relativeDateBucket = bucket;
     }
     
     public String getContent() {
@@ -109,13 +203,44 @@ public class Article implements Serializable {
         isFavorite = favorite;
     }
     
-    public static class Source implements Serializable {
+    public static class Source implements Parcelable {
         @SerializedName("id")
         private String id;
         
         @SerializedName("name")
         private String name;
         
+        public Source() {
+        }
+        
+        protected Source(Parcel in) {
+            id = in.readString();
+            name = in.readString();
+        }
+        
+        public static final Creator<Source> CREATOR = new Creator<Source>() {
+            @Override
+            public Source createFromParcel(Parcel in) {
+                return new Source(in);
+            }
+            
+            @Override
+            public Source[] newArray(int size) {
+                return new Source[size];
+            }
+        };
+        
+        @Override
+        public void writeToParcel(Parcel dest, int flags) {
+            dest.writeString(id);
+            dest.writeString(name);
+        }
+        
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+        
         public String getId() {
             return id;
         }
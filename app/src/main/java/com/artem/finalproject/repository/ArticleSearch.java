@@ -0,0 +1,242 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.dao.ArticleFtsDao;
+import com.artem.finalproject.database.entity.ArticleFts;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.utils.AppExecutors;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Локальный поиск по статьям из кэша и избранного через FTS4-индекс article_fts.
+ * Работает без сети и без квоты NewsAPI; результаты ранжируются по BM25.
+ */
+public class ArticleSearch {
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+    
+    // Параметры BM25 и веса колонок article_fts (порядок как в ArticleFts)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double[] COLUMN_WEIGHTS = {
+            0.0, // url
+            0.0, // urlToImage
+            0.0, // publishedAt
+            3.0, // title
+            1.0, // description
+            0.5  // sourceName
+    };
+    
+    private static ArticleSearch instance;
+    
+    private final AppDatabase database;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final Handler mainHandler;
+    
+    /**
+     * Получатель результатов (на главном потоке)
+     */
+    public interface Callback {
+        void onResults(String query, List<Article> articles);
+    }
+    
+    private ArticleSearch(Context context) {
+        database = AppDatabase.getInstance(context);
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+    
+    public static synchronized ArticleSearch getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleSearch(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    /**
+     * Найти до limit статей; пустой или слишком короткий запрос дает пустой список
+     */
+    public void search(String query, int limit, Callback callback) {
+        dbExecutor.execute(AppExecutors.PRIORITY_HIGH, () -> {
+            List<Article> articles = searchNow(query, limit);
+            mainHandler.post(() -> callback.onResults(query, articles));
+        });
+    }
+    
+    /**
+     * Синхронный поиск, только с фонового потока
+     */
+    public List<Article> searchNow(String query, int limit) {
+        String match = buildMatch(query);
+        if (match == null) {
+            return Collections.emptyList();
+        }
+        // Ранжируются все совпадения, тексты читаются только для первых limit статей
+        ArticleFtsDao dao = database.articleFtsDao();
+        List<ArticleFtsDao.Candidate> ranked = rank(dao.searchCandidates(match));
+        Set<String> favoriteUrls = new HashSet<>();
+        List<Long> top = selectTop(ranked, limit, favoriteUrls);
+        if (top.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return toArticles(top, dao.getByRowIds(top), favoriteUrls);
+    }
+    
+    /**
+     * MATCH-выражение из пользовательского ввода: каждое слово - префиксный терм,
+     * все термы обязательны. Спецсимволы FTS отбрасываются, слова приводятся
+     * к нижнему регистру, чтобы AND/OR/NOT не стали операторами.
+     */
+    static String buildMatch(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        Matcher matcher = TERM.matcher(query.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String term = matcher.group();
+            if (term.length() < MIN_TERM_LENGTH) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(term).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+    
+    /**
+     * Сортировка совпадений по убыванию BM25, при равенстве - более свежие выше
+     */
+    static List<ArticleFtsDao.Candidate> rank(List<ArticleFtsDao.Candidate> candidates) {
+        Map<ArticleFtsDao.Candidate, Double> scores = new HashMap<>();
+        for (ArticleFtsDao.Candidate candidate : candidates) {
+            scores.put(candidate, bm25(candidate.matchInfo, COLUMN_WEIGHTS));
+        }
+        List<ArticleFtsDao.Candidate> ranked = new ArrayList<>(candidates);
+        Collections.sort(ranked, (a, b) -> {
+            int byScore = Double.compare(scores.get(b), scores.get(a));
+            if (byScore != 0) {
+                return byScore;
+            }
+            return compareNullable(b.publishedAt, a.publishedAt);
+        });
+        return ranked;
+    }
+    
+    /**
+     * BM25 по matchinfo(..., 'pcnalx'):
+     * p - число фраз, c - число колонок, n - число строк, a[c] - средняя длина колонки,
+     * l[c] - длина колонки в этой строке, x[3*(c*i+j)] - попадания фразы i в колонку j
+     * (в этой строке, во всех строках, число строк с попаданием).
+     */
+    static double bm25(byte[] matchInfo, double[] weights) {
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        long rows = buffer.getInt(8) & 0xFFFFFFFFL;
+        int avgOffset = 3;
+        int lengthOffset = avgOffset + columns;
+        int hitsOffset = lengthOffset + columns;
+        
+        double score = 0;
+        for (int i = 0; i < phrases; i++) {
+            for (int j = 0; j < columns && j < weights.length; j++) {
+                if (weights[j] == 0) {
+                    continue;
+                }
+                int x = hitsOffset + 3 * (columns * i + j);
+                long hitsInRow = readUnsigned(buffer, x);
+                if (hitsInRow == 0) {
+                    continue;
+                }
+                long docsWithHits = readUnsigned(buffer, x + 2);
+                long avgLength = Math.max(1, readUnsigned(buffer, avgOffset + j));
+                long length = readUnsigned(buffer, lengthOffset + j);
+                
+                // Вариант IDF без отрицательных значений для очень частых слов
+                double idf = Math.log(1 + (rows - docsWithHits + 0.5) / (docsWithHits + 0.5));
+                double tf = hitsInRow * (K1 + 1) / (hitsInRow + K1 * (1 - B + B * length / (double) avgLength));
+                score += weights[j] * idf * tf;
+            }
+        }
+        return score;
+    }
+    
+    private static long readUnsigned(ByteBuffer buffer, int index) {
+        return buffer.getInt(index * 4) & 0xFFFFFFFFL;
+    }
+    
+    private static int compareNullable(String a, String b) {
+        if (a == null) {
+            return b == null ? 0 : -1;
+        }
+        return b == null ? 1 : a.compareTo(b);
+    }
+    
+    /**
+     * rowid первых limit статей в порядке ранжирования без повторов по url.
+     * В favoriteUrls попадают url, у которых есть избранная копия, даже если выше стоит кэшированная.
+     */
+    static List<Long> selectTop(List<ArticleFtsDao.Candidate> ranked, int limit, Set<String> favoriteUrls) {
+        Set<String> seen = new HashSet<>();
+        List<Long> top = new ArrayList<>();
+        for (ArticleFtsDao.Candidate candidate : ranked) {
+            if (candidate.isFavorite()) {
+                favoriteUrls.add(candidate.url);
+            }
+            if (top.size() < limit && seen.add(candidate.url)) {
+                top.add(candidate.rowId);
+            }
+        }
+        return top;
+    }
+    
+    /**
+     * Статьи в порядке top; IN (...) возвращает строки в произвольном порядке
+     */
+    private static List<Article> toArticles(List<Long> top, List<ArticleFts> rows, Set<String> favoriteUrls) {
+        Map<Long, ArticleFts> byRowId = new HashMap<>();
+        for (ArticleFts row : rows) {
+            byRowId.put(row.getRowId(), row);
+        }
+        List<Article> articles = new ArrayList<>(top.size());
+        for (Long rowId : top) {
+            ArticleFts row = byRowId.get(rowId);
+            if (row == null) {
+                // Строку удалили между двумя запросами
+                continue;
+            }
+            Article article = new Article();
+            article.setUrl(row.getUrl());
+            article.setTitle(row.getTitle());
+            article.setDescription(row.getDescription());
+            article.setUrlToImage(row.getUrlToImage());
+            article.setPublishedAt(row.getPublishedAt());
+            article.setFavorite(favoriteUrls.contains(row.getUrl()));
+            
+            Article.Source source = new Article.Source();
+            source.setName(row.getSourceName());
+            article.setSource(source);
+            articles.add(article);
+        }
+        return articles;
+    }
+}
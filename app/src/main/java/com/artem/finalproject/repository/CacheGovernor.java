@@ -0,0 +1,166 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.dao.CachedArticleDao;
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.utils.AppExecutors;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение размера cached_articles: по числу строк и байтам на каждую ленту и на весь кэш,
+ * плюс возраст с последнего чтения. Вытесняются статьи, которые дольше всех не читали (LRU).
+ * Удаление идет пачками по BATCH_SIZE строк, каждая пачка - отдельная короткая задача
+ * на фоновом приоритете, чтобы не держать блокировку записи и не задерживать запросы экрана.
+ */
+public class CacheGovernor {
+    static final int BATCH_SIZE = 50;
+    // Пауза после записи в кэш: WriteBehindQueue успевает сбросить страницу, а серия страниц дает один проход
+    private static final long TRIM_DELAY_MS = 2000;
+    
+    /**
+     * Пределы кэша
+     */
+    static final class Limits {
+        static final Limits DEFAULT = new Limits(500, 2L * 1024 * 1024, 3000, 8L * 1024 * 1024,
+                7 * 24 * 60 * 60 * 1000L);
+        
+        final int maxRowsPerQuery;
+        final long maxBytesPerQuery;
+        final int maxRows;
+        final long maxBytes;
+        final long maxIdleMs;
+        
+        Limits(int maxRowsPerQuery, long maxBytesPerQuery, int maxRows, long maxBytes, long maxIdleMs) {
+            this.maxRowsPerQuery = maxRowsPerQuery;
+            this.maxBytesPerQuery = maxBytesPerQuery;
+            this.maxRows = maxRows;
+            this.maxBytes = maxBytes;
+            this.maxIdleMs = maxIdleMs;
+        }
+    }
+    
+    private static CacheGovernor instance;
+    
+    private final AppDatabase database;
+    private final Limits limits;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final Handler mainHandler;
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Запрос пришел, пока шел проход: нужен еще один круг
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final Runnable startTask = this::start;
+    
+    CacheGovernor(AppDatabase database, Limits limits) {
+        this.database = database;
+        this.limits = limits;
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+    
+    public static synchronized CacheGovernor getInstance(Context context) {
+        if (instance == null) {
+            instance = new CacheGovernor(AppDatabase.getInstance(context.getApplicationContext()), Limits.DEFAULT);
+        }
+        return instance;
+    }
+    
+    /**
+     * Запланировать проверку пределов; частые вызовы сливаются в один проход
+     */
+    public void requestTrim() {
+        mainHandler.removeCallbacks(startTask);
+        mainHandler.postDelayed(startTask, TRIM_DELAY_MS);
+    }
+    
+    /**
+     * Примерный размер строки кэша в байтах; та же формула в миграции 4 -> 5
+     */
+    public static long sizeOf(CachedArticle article) {
+        return utf8Length(article.getUrl()) + utf8Length(article.getTitle())
+                + utf8Length(article.getDescription()) + utf8Length(article.getUrlToImage())
+                + utf8Length(article.getAuthor()) + utf8Length(article.getPublishedAt())
+                + utf8Length(article.getSourceName()) + utf8Length(article.getQuery());
+    }
+    
+    private void start() {
+        requested.set(true);
+        if (running.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+    
+    private void schedule() {
+        // Очередь базы переполнена - следующий requestTrim начнет заново
+        if (!dbExecutor.execute(AppExecutors.PRIORITY_LOW, this::step)) {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Одна пачка за задачу; пока есть что удалять, задача ставит следующую
+     */
+    private void step() {
+        requested.set(false);
+        if (trimOnce() > 0) {
+            schedule();
+            return;
+        }
+        running.set(false);
+        // Запрос мог прийти между последней пачкой и сбросом флага
+        if (requested.get() && running.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+    
+    /**
+     * Удалить не больше BATCH_SIZE строк; 0 - кэш в пределах
+     */
+    int trimOnce() {
+        CachedArticleDao dao = database.cachedArticleDao();
+        int deleted = dao.evictIdle(System.currentTimeMillis() - limits.maxIdleMs, BATCH_SIZE);
+        if (deleted > 0) {
+            return deleted;
+        }
+        
+        for (CachedArticleDao.CacheStats stats : dao.getQueryStats()) {
+            int excess = excess(stats.rowCount, stats.totalBytes, limits.maxRowsPerQuery, limits.maxBytesPerQuery);
+            if (excess > 0 && stats.query != null) {
+                return dao.evictLeastRecentInQuery(stats.query, Math.min(excess, BATCH_SIZE));
+            }
+        }
+        
+        CachedArticleDao.CacheStats total = dao.getTotalStats();
+        int excess = excess(total.rowCount, total.totalBytes, limits.maxRows, limits.maxBytes);
+        if (excess > 0) {
+            return dao.evictLeastRecent(Math.min(excess, BATCH_SIZE));
+        }
+        return 0;
+    }
+    
+    /**
+     * Сколько строк убрать, чтобы уложиться в оба предела.
+     * Для предела по байтам берется средний размер строки.
+     */
+    static int excess(int rows, long bytes, int maxRows, long maxBytes) {
+        if (rows <= 0) {
+            return 0;
+        }
+        int byRows = Math.max(0, rows - maxRows);
+        int byBytes = 0;
+        if (bytes > maxBytes) {
+            double average = bytes / (double) rows;
+            byBytes = (int) Math.min(rows, Math.ceil((bytes - maxBytes) / average));
+        }
+        return Math.max(byRows, byBytes);
+    }
+    
+    private static long utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,173 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.WriteBehindQueue;
+import com.artem.finalproject.database.dao.FavoriteArticleDao;
+import com.artem.finalproject.database.entity.FavoriteArticle;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.utils.AppExecutors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Множество url избранных статей на весь процесс.
+ * Загружается из favorite_articles один раз, дальше меняется сразу в памяти,
+ * а в базу изменения пишутся следом через WriteBehindQueue. Проверка "в избранном ли статья"
+ * при отрисовке списка - O(1) без обращения к Room.
+ */
+public class FavoritesIndex {
+    private static FavoritesIndex instance;
+    
+    private final AppDatabase database;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final WriteBehindQueue writeQueue;
+    private final Set<String> urls = ConcurrentHashMap.newKeySet();
+    private final MutableLiveData<Set<String>> favorites = new MutableLiveData<>(Collections.emptySet());
+    
+    // Данные для вставки, пока запись в базу еще не выполнена
+    private final Map<String, FavoriteArticle> pendingInserts = new HashMap<>();
+    // Изменения до окончания загрузки важнее того, что загрузка прочитает из базы
+    private final Set<String> changedBeforeLoad = new HashSet<>();
+    private boolean loaded;
+    private final Object writeLock = new Object();
+    
+    private FavoritesIndex(Context context) {
+        database = AppDatabase.getInstance(context);
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        writeQueue = WriteBehindQueue.getInstance(context);
+        load();
+    }
+    
+    public static synchronized FavoritesIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new FavoritesIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    /**
+     * Текущее множество url; обновляется на главном потоке после каждого изменения
+     */
+    public LiveData<Set<String>> observe() {
+        return favorites;
+    }
+    
+    public boolean isFavorite(String url) {
+        return url != null && urls.contains(url);
+    }
+    
+    public void setFavorite(Article article, boolean favorite) {
+        setFavorite(article, favorite, null);
+    }
+    
+    /**
+     * Добавить или убрать статью. Память и подписчики обновляются сразу,
+     * onSaved (если задан) вызывается на главном потоке после записи в базу.
+     */
+    public void setFavorite(Article article, boolean favorite, Runnable onSaved) {
+        String url = article.getUrl();
+        if (url == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (!loaded) {
+                changedBeforeLoad.add(url);
+            }
+            if (favorite) {
+                pendingInserts.put(url, toFavorite(article));
+                urls.add(url);
+            } else {
+                pendingInserts.remove(url);
+                urls.remove(url);
+            }
+        }
+        publish();
+        
+        // Повторные переключения одной статьи в пределах окна очереди дают одну запись
+        writeQueue.enqueue("favorite:" + url, db -> store(url), onSaved);
+        if (onSaved != null) {
+            // Экран ждет записи, чтобы перечитать список
+            writeQueue.flush();
+        }
+    }
+    
+    /**
+     * Чтение из базы идет без блокировки: setFavorite не ждет Room,
+     * а изменения, сделанные за это время, защищает changedBeforeLoad.
+     */
+    private void load() {
+        dbExecutor.execute(AppExecutors.PRIORITY_HIGH, () -> {
+            List<String> stored = database.favoriteArticleDao().getAllUrls();
+            synchronized (writeLock) {
+                for (String url : stored) {
+                    if (!changedBeforeLoad.contains(url)) {
+                        urls.add(url);
+                    }
+                }
+                changedBeforeLoad.clear();
+                loaded = true;
+            }
+            publish();
+        });
+    }
+    
+    /**
+     * Привести базу к состоянию в памяти: пишется итоговое состояние url, а не сама операция,
+     * поэтому запись можно откладывать и схлопывать.
+     * Под блокировкой только снимок состояния; запрос к Room идет уже без нее. Если url
+     * переключат сразу после снимка, setFavorite поставит в очередь новую запись,
+     * и она выполнится после этой.
+     */
+    private void store(String url) {
+        boolean favorite;
+        FavoriteArticle pending;
+        synchronized (writeLock) {
+            favorite = urls.contains(url);
+            pending = favorite ? pendingInserts.remove(url) : null;
+        }
+        FavoriteArticleDao dao = database.favoriteArticleDao();
+        if (favorite) {
+            // Уже сохраненный url уникальный индекс отбросит
+            if (pending != null) {
+                dao.insert(pending);
+            }
+        } else {
+            dao.deleteByUrl(url);
+        }
+    }
+    
+    private void publish() {
+        Set<String> snapshot = Collections.unmodifiableSet(new HashSet<>(urls));
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            favorites.setValue(snapshot);
+        } else {
+            favorites.postValue(snapshot);
+        }
+    }
+    
+    private static FavoriteArticle toFavorite(Article article) {
+        FavoriteArticle favorite = new FavoriteArticle();
+        favorite.setTitle(article.getTitle());
+        favorite.setDescription(article.getDescription());
+        favorite.setUrl(article.getUrl());
+        favorite.setUrlToImage(article.getUrlToImage());
+        favorite.setAuthor(article.getAuthor());
+        favorite.setPublishedAt(article.getPublishedAt());
+        if (article.getSource() != null) {
+            favorite.setSourceName(article.getSource().getName());
+        }
+        return favorite;
+    }
+}
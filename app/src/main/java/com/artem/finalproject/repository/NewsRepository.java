@@ -0,0 +1,372 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.artem.finalproject.api.CircuitBreaker;
+import com.artem.finalproject.api.NewsResponseTypeAdapter;
+import com.artem.finalproject.api.RequestBudget;
+import com.artem.finalproject.api.RequestManager;
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.WriteBehindQueue;
+import com.artem.finalproject.database.dao.CachedArticleDao;
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.models.NewsResponse;
+import com.artem.finalproject.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Репозиторий новостей (offline-first).
+ * Сначала отдает то, что лежит в cached_articles, затем, если кэш устарел,
+ * обновляет его из сети (stale-while-revalidate).
+ */
+public class NewsRepository {
+    private static final String KEY_HEADLINES = "top:";
+    private static final String KEY_SEARCH = "search:";
+    
+    // Время жизни кэша для разных типов запросов
+    private static final long TTL_HEADLINES = 15 * 60 * 1000L;
+    private static final long TTL_SEARCH = 60 * 60 * 1000L;
+    
+    private static NewsRepository instance;
+    
+    private final AppDatabase database;
+    private final RequestBudget budget;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final WriteBehindQueue writeQueue;
+    private final CacheGovernor cacheGovernor;
+    private final Handler mainHandler;
+    
+    /**
+     * Создает сетевой запрос, если кэш устарел или отсутствует
+     */
+    public interface RequestFactory {
+        Call<NewsResponse> create();
+    }
+    
+    /**
+     * Получатель данных: кэш приходит через onCached, ответ сети - через Callback
+     */
+    public interface Listener extends Callback<NewsResponse> {
+        void onCached(List<Article> articles);
+    }
+    
+    /**
+     * Получатель первой страницы, которому статьи сети нужны по одной, еще до конца разбора ответа.
+     * onArticle вызывается на главном потоке и только пока запрос актуален; полный ответ
+     * все равно приходит в onResponse.
+     */
+    public interface StreamingListener extends Listener {
+        void onArticle(Article article, int index);
+    }
+    
+    private NewsRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        budget = RequestBudget.getInstance(context);
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        writeQueue = WriteBehindQueue.getInstance(context);
+        cacheGovernor = CacheGovernor.getInstance(context);
+        mainHandler = new Handler(Looper.getMainLooper());
+        // Кэш мог перерасти пределы в прошлых запусках
+        cacheGovernor.requestTrim();
+    }
+    
+    public static synchronized NewsRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new NewsRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    public static String headlinesKey(String category) {
+        return KEY_HEADLINES + category;
+    }
+    
+    public static String searchKey(String query) {
+        return KEY_SEARCH + query.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Загрузить первую страницу ленты.
+     * Кэш (если есть) отдается сразу, сеть вызывается только когда кэш старше TTL.
+     * Запрос регистрируется в RequestManager под requestKey: более новый запрос
+     * с тем же ключом отменяет этот, и результаты отмененного запроса не доставляются.
+     * Ответ сети заменяет всю ленту в кэше, курсор встает после его последней статьи.
+     */
+    public void load(RequestManager requests, String requestKey, FeedCursor cursor,
+                     RequestFactory factory, Listener listener) {
+        // Call создается сразу (это дешево), чтобы его можно было отменить еще до чтения кэша
+        Call<NewsResponse> request = factory.create();
+        requests.track(requestKey, request);
+        String cacheKey = cursor.cacheKey;
+        
+        // Пользователь ждет экран, поэтому чтение кэша идет раньше фоновых записей
+        dbExecutor.execute(AppExecutors.PRIORITY_HIGH, () -> {
+            if (request.isCanceled()) {
+                return;
+            }
+            // Замена ленты могла еще ждать в WriteBehindQueue
+            writeQueue.flushNow();
+            List<CachedArticle> cached = cursor.readFirst(database.cachedArticleDao());
+            boolean fresh = false;
+            if (!cached.isEmpty()) {
+                touch(cursor, cached);
+                List<Article> articles = toArticles(cached);
+                // Когда квота заканчивается, кэш считается свежим дольше,
+                // а без квоты или при сбоящем API - всегда
+                fresh = budget.isExhausted() || CircuitBreaker.getInstance().isOpen()
+                        || System.currentTimeMillis() - cached.get(0).getCachedAt() < budget.adjustTtl(getTtl(cacheKey));
+                deliverCached(requests, requestKey, request, listener, articles);
+            }
+            if (fresh) {
+                mainHandler.post(() -> requests.release(requestKey, request));
+                return;
+            }
+            enqueue(requests, requestKey, request, listener, articles -> replaceCache(cursor, articles));
+        });
+    }
+    
+    /**
+     * Загрузить следующую страницу ленты после курсора.
+     * Сначала страница читается из кэша (keyset-пагинация по query + cachedAt),
+     * и только если кэш закончился - запрашивается из сети и дописывается в конец ленты.
+     */
+    public void loadMore(RequestManager requests, String requestKey, FeedCursor cursor,
+                         RequestFactory factory, Listener listener) {
+        Call<NewsResponse> request = factory.create();
+        requests.track(requestKey, request);
+        
+        dbExecutor.execute(AppExecutors.PRIORITY_HIGH, () -> {
+            if (request.isCanceled()) {
+                return;
+            }
+            // Курсор уже стоит на странице из сети; без сброса очереди чтение
+            // увидит старую ленту, если запись еще в окне WriteBehindQueue
+            writeQueue.flushNow();
+            List<CachedArticle> cached = cursor.readNext(database.cachedArticleDao());
+            if (!cached.isEmpty()) {
+                touch(cursor, cached);
+                deliverCached(requests, requestKey, request, listener, toArticles(cached));
+                mainHandler.post(() -> requests.release(requestKey, request));
+                return;
+            }
+            enqueue(requests, requestKey, request, listener, articles -> appendToCache(cursor, articles));
+        });
+    }
+    
+    private interface CacheWriter {
+        void write(List<Article> articles);
+    }
+    
+    private void deliverCached(RequestManager requests, String requestKey, Call<NewsResponse> request,
+                               Listener listener, List<Article> articles) {
+        mainHandler.post(() -> {
+            if (requests.isCurrent(requestKey, request)) {
+                listener.onCached(articles);
+            }
+        });
+    }
+    
+    private void enqueue(RequestManager requests, String requestKey, Call<NewsResponse> request,
+                         Listener listener, CacheWriter writer) {
+        request.enqueue(new NetworkCallback(requests, requestKey, request, listener, writer));
+    }
+    
+    /**
+     * Ответ сети для ленты; статьи, разобранные до конца ответа, передаются StreamingListener
+     */
+    private final class NetworkCallback implements Callback<NewsResponse>, NewsResponseTypeAdapter.OnArticleListener {
+        private final RequestManager requests;
+        private final String requestKey;
+        private final Call<NewsResponse> request;
+        private final Listener listener;
+        private final CacheWriter writer;
+        
+        NetworkCallback(RequestManager requests, String requestKey, Call<NewsResponse> request,
+                        Listener listener, CacheWriter writer) {
+            this.requests = requests;
+            this.requestKey = requestKey;
+            this.request = request;
+            this.listener = listener;
+            this.writer = writer;
+        }
+        
+        @Override
+        public void onArticle(Article article, int index) {
+            if (!(listener instanceof StreamingListener)) {
+                return;
+            }
+            // Вызывается на потоке разбора
+            mainHandler.post(() -> {
+                if (requests.isCurrent(requestKey, request)) {
+                    ((StreamingListener) listener).onArticle(article, index);
+                }
+            });
+        }
+        
+        @Override
+        public void onResponse(Call<NewsResponse> call, Response<NewsResponse> response) {
+            boolean current = requests.isCurrent(requestKey, call);
+            requests.release(requestKey, call);
+            
+            // Ответ уже получен и квота потрачена - сохраняем его, даже если экран ждет другой
+            NewsResponse body = response.body();
+            if (response.isSuccessful() && body != null && "ok".equals(body.getStatus())
+                    && body.getArticles() != null && !body.getArticles().isEmpty()) {
+                writer.write(body.getArticles());
+            }
+            if (current) {
+                listener.onResponse(call, response);
+            }
+        }
+        
+        @Override
+        public void onFailure(Call<NewsResponse> call, Throwable t) {
+            boolean current = requests.isCurrent(requestKey, call);
+            requests.release(requestKey, call);
+            if (current) {
+                listener.onFailure(call, t);
+            }
+        }
+    }
+    
+    /**
+     * Курсор сдвигается сразу, запись в базу уходит в WriteBehindQueue.
+     * Повторная замена той же ленты до записи вытесняет предыдущую.
+     */
+    private void replaceCache(FeedCursor cursor, List<Article> articles) {
+        // Сдвигаем cachedAt на позицию, чтобы ORDER BY cachedAt DESC сохранял порядок выдачи API
+        List<CachedArticle> rows = toCachedRows(articles, cursor.cacheKey, System.currentTimeMillis());
+        cursor.moveTo(rows);
+        writeQueue.enqueue("cache:" + cursor.cacheKey,
+                db -> db.cachedArticleDao().replaceQuery(cursor.cacheKey, rows));
+        cacheGovernor.requestTrim();
+    }
+    
+    private void appendToCache(FeedCursor cursor, List<Article> articles) {
+        // Новая страница встает в ленте сразу за последней прочитанной статьей
+        List<CachedArticle> rows = toCachedRows(articles, cursor.cacheKey, cursor.nextCachedAt());
+        cursor.moveTo(rows);
+        writeQueue.enqueue(db -> db.cachedArticleDao().upsertAll(rows));
+        cacheGovernor.requestTrim();
+    }
+    
+    /**
+     * Отметить показанные из кэша статьи как недавно прочитанные, чтобы их не вытеснил CacheGovernor
+     */
+    private void touch(FeedCursor cursor, List<CachedArticle> rows) {
+        List<String> urls = new ArrayList<>(rows.size());
+        for (CachedArticle row : rows) {
+            urls.add(row.getUrl());
+        }
+        long now = System.currentTimeMillis();
+        writeQueue.enqueue(db -> db.cachedArticleDao().touch(cursor.cacheKey, urls, now));
+    }
+    
+    private static List<CachedArticle> toCachedRows(List<Article> articles, String cacheKey, long firstCachedAt) {
+        List<CachedArticle> rows = new ArrayList<>(articles.size());
+        for (int i = 0; i < articles.size(); i++) {
+            Article article = articles.get(i);
+            if (article.getUrl() == null) {
+                continue;
+            }
+            CachedArticle row = toCachedArticle(article, cacheKey);
+            row.setCachedAt(firstCachedAt - i);
+            rows.add(row);
+        }
+        return rows;
+    }
+    
+    private long getTtl(String cacheKey) {
+        return cacheKey.startsWith(KEY_SEARCH) ? TTL_SEARCH : TTL_HEADLINES;
+    }
+    
+    private static CachedArticle toCachedArticle(Article article, String cacheKey) {
+        CachedArticle cached = new CachedArticle();
+        cached.setUrl(article.getUrl());
+        cached.setTitle(article.getTitle());
+        cached.setDescription(article.getDescription());
+        cached.setUrlToImage(article.getUrlToImage());
+        cached.setAuthor(article.getAuthor());
+        cached.setPublishedAt(article.getPublishedAt());
+        if (article.getSource() != null) {
+            cached.setSourceName(article.getSource().getName());
+        }
+        cached.setQuery(cacheKey);
+        cached.setSizeBytes(CacheGovernor.sizeOf(cached));
+        return cached;
+    }
+    
+    private static List<Article> toArticles(List<CachedArticle> cached) {
+        List<Article> articles = new ArrayList<>(cached.size());
+        for (CachedArticle row : cached) {
+            Article article = new Article();
+            article.setUrl(row.getUrl());
+            article.setTitle(row.getTitle());
+            article.setDescription(row.getDescription());
+            article.setUrlToImage(row.getUrlToImage());
+            article.setAuthor(row.getAuthor());
+            article.setPublishedAt(row.getPublishedAt());
+            
+            Article.Source source = new Article.Source();
+            source.setName(row.getSourceName());
+            article.setSource(source);
+            articles.add(article);
+        }
+        return articles;
+    }
+    
+    /**
+     * Позиция в ленте кэша для keyset-пагинации: (cachedAt, url) последней отданной статьи.
+     * В отличие от OFFSET, следующая страница читается по индексу без пропуска уже прочитанных строк,
+     * а в памяти держится только одна страница.
+     */
+    public static final class FeedCursor {
+        private final String cacheKey;
+        private final int pageSize;
+        private long lastCachedAt = Long.MAX_VALUE;
+        private String lastUrl = "";
+        
+        public FeedCursor(String cacheKey, int pageSize) {
+            this.cacheKey = cacheKey;
+            this.pageSize = pageSize;
+        }
+        
+        public String getCacheKey() {
+            return cacheKey;
+        }
+        
+        synchronized List<CachedArticle> readFirst(CachedArticleDao dao) {
+            lastCachedAt = Long.MAX_VALUE;
+            lastUrl = "";
+            return readNext(dao);
+        }
+        
+        synchronized List<CachedArticle> readNext(CachedArticleDao dao) {
+            List<CachedArticle> rows = dao.getPageAfter(cacheKey, lastCachedAt, lastUrl, pageSize);
+            moveTo(rows);
+            return rows;
+        }
+        
+        synchronized void moveTo(List<CachedArticle> rows) {
+            if (!rows.isEmpty()) {
+                CachedArticle last = rows.get(rows.size() - 1);
+                lastCachedAt = last.getCachedAt();
+                lastUrl = last.getUrl();
+            }
+        }
+        
+        synchronized long nextCachedAt() {
+            return lastCachedAt == Long.MAX_VALUE ? System.currentTimeMillis() : lastCachedAt - 1;
+        }
+    }
+}
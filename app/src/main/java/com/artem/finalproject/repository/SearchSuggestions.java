@@ -0,0 +1,81 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.WriteBehindQueue;
+import com.artem.finalproject.database.dao.SearchHistoryDao;
+import com.artem.finalproject.utils.AppExecutors;
+import com.artem.finalproject.utils.SuggestionTrie;
+
+import java.util.List;
+
+/**
+ * Подсказки поиска по истории запросов.
+ * История один раз на процесс сворачивается в SuggestionTrie агрегирующим запросом,
+ * дальше каждый новый поиск добавляется в дерево без повторного чтения таблицы.
+ */
+public class SearchSuggestions {
+    private static SearchSuggestions instance;
+    
+    private final AppDatabase database;
+    private final AppExecutors.PriorityLane dbExecutor;
+    private final WriteBehindQueue writeQueue;
+    private final Handler mainHandler;
+    private final SuggestionTrie trie = new SuggestionTrie();
+    private boolean loaded;
+    
+    private SearchSuggestions(Context context) {
+        database = AppDatabase.getInstance(context);
+        dbExecutor = AppExecutors.getInstance().diskIO();
+        writeQueue = WriteBehindQueue.getInstance(context);
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+    
+    public static synchronized SearchSuggestions getInstance(Context context) {
+        if (instance == null) {
+            instance = new SearchSuggestions(context.getApplicationContext());
+        }
+        return instance;
+    }
+    
+    /**
+     * Построить дерево из search_history (если еще не построено); onReady - на главном потоке
+     */
+    public void load(Runnable onReady) {
+        dbExecutor.execute(AppExecutors.PRIORITY_LOW, () -> {
+            synchronized (this) {
+                if (!loaded) {
+                    // Поиски, для которых record() уже пропустил дерево, еще могут ждать в очереди записи
+                    writeQueue.flushNow();
+                    for (SearchHistoryDao.QueryStats stats : database.searchHistoryDao().getQueryStats()) {
+                        trie.add(stats.query, stats.searchCount, stats.lastSearchedAt);
+                    }
+                    loaded = true;
+                }
+            }
+            mainHandler.post(onReady);
+        });
+    }
+    
+    /**
+     * Учесть только что сохраненный запрос. Вызывается после вставки в search_history:
+     * если дерево еще не построено, запрос попадет в него при загрузке
+     */
+    public void record(String query, long searchedAt) {
+        synchronized (this) {
+            if (loaded) {
+                trie.add(query, 1, searchedAt);
+            }
+        }
+    }
+    
+    /**
+     * Лучшие запросы по частоте и давности, начинающиеся с prefix; пустой prefix - лучшие вообще
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, limit);
+    }
+}
@@ -0,0 +1,55 @@
+package com.artem.finalproject.ui.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.utils.AppExecutors;
+import java.util.Objects;
+
+/**
+ * Сравнение статей для ListAdapter: ключ - url,
+ * если изменился только флаг избранного - частичное обновление строки
+ */
+class ArticleDiffCallback extends DiffUtil.ItemCallback<Article> {
+    static final Object PAYLOAD_FAVORITE = new Object();
+    static final ArticleDiffCallback INSTANCE = new ArticleDiffCallback();
+    
+    // Разница списков считается в общей CPU-полосе, а не в отдельном пуле RecyclerView
+    static final AsyncDifferConfig<Article> CONFIG = new AsyncDifferConfig.Builder<>(INSTANCE)
+            .setBackgroundThreadExecutor(AppExecutors.getInstance().compute())
+            .build();
+    
+    @Override
+    public boolean areItemsTheSame(@NonNull Article oldItem, @NonNull Article newItem) {
+        return Objects.equals(oldItem.getUrl(), newItem.getUrl());
+    }
+    
+    @Override
+    public boolean areContentsTheSame(@NonNull Article oldItem, @NonNull Article newItem) {
+        return oldItem.isFavorite() == newItem.isFavorite() && sameContent(oldItem, newItem);
+    }
+    
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull Article oldItem, @NonNull Article newItem) {
+        if (oldItem.isFavorite() != newItem.isFavorite() && sameContent(oldItem, newItem)) {
+            return PAYLOAD_FAVORITE;
+        }
+        return null;
+    }
+    
+    private static boolean sameContent(Article oldItem, Article newItem) {
+        return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                && Objects.equals(oldItem.getUrlToImage(), newItem.getUrlToImage())
+                && Objects.equals(oldItem.getPublishedAt(), newItem.getPublishedAt())
+                && Objects.equals(oldItem.getAuthor(), newItem.getAuthor())
+                && Objects.equals(sourceName(oldItem), sourceName(newItem));
+    }
+    
+    private static String sourceName(Article article) {
+        return article.getSource() != null ? article.getSource().getName() : null;
+    }
+}
@@ -8,24 +8,23 @@ import android.widget.ImageButton;
 import android.widget.PopupMenu;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.artem.finalproject.R;
 import com.artem.finalproject.models.Article;
+import com.artem.finalproject.repository.FavoritesIndex;
+import com.artem.finalproject.utils.DateFormatter;
 import com.bumptech.glide.Glide;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Адаптер для вертикального списка Latest новостей
  */
-public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestViewHolder> {
-    private List<Article> articles;
+public class LatestAdapter extends ListAdapter<Article, LatestAdapter.LatestViewHolder> {
     private OnItemClickListener onItemClickListener;
     private OnFavoriteClickListener onFavoriteClickListener;
+    private FavoritesIndex favoritesIndex;
     
     public interface OnItemClickListener {
         void onItemClick(Article article);
@@ -36,12 +35,23 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
     }
     
     public LatestAdapter() {
-        this.articles = new ArrayList<>();
+        super(ArticleDiffCallback.CONFIG);
     }
     
+    /**
+     * Передать новый список: разница считается в фоне, перерисовываются только измененные строки
+     */
     public void setArticles(List<Article> articles) {
-        this.articles = articles;
-        notifyDataSetChanged();
+        submitList(articles != null ? new ArrayList<>(articles) : null);
+    }
+    
+    /**
+     * Дописать следующую страницу в конец: DiffUtil сообщит об этом как о вставке диапазона
+     */
+    public void addArticles(List<Article> newArticles) {
+        List<Article> merged = new ArrayList<>(getCurrentList());
+        merged.addAll(newArticles);
+        submitList(merged);
     }
     
     public void setOnItemClickListener(OnItemClickListener listener) {
@@ -52,6 +62,17 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
         this.onFavoriteClickListener = listener;
     }
     
+    /**
+     * Индекс избранного: состояние статьи берется из памяти, а не из флага в модели
+     */
+    public void setFavoritesIndex(FavoritesIndex favoritesIndex) {
+        this.favoritesIndex = favoritesIndex;
+    }
+    
+    private boolean isFavorite(Article article) {
+        return favoritesIndex != null ? favoritesIndex.isFavorite(article.getUrl()) : article.isFavorite();
+    }
+    
     
     @NonNull
     @Override
@@ -63,13 +84,16 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
     
     @Override
     public void onBindViewHolder(@NonNull LatestViewHolder holder, int position) {
-        Article article = articles.get(position);
+        Article article = getItem(position);
         holder.bind(article);
     }
     
     @Override
-    public int getItemCount() {
-        return articles.size();
+    public void onBindViewHolder(@NonNull LatestViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // В карточке нет значка избранного, поэтому такое изменение не требует перерисовки
+        if (!payloads.contains(ArticleDiffCallback.PAYLOAD_FAVORITE)) {
+            onBindViewHolder(holder, position);
+        }
     }
     
     class LatestViewHolder extends RecyclerView.ViewHolder {
@@ -93,7 +117,7 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
                 if (onItemClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onItemClickListener.onItemClick(articles.get(position));
+                        onItemClickListener.onItemClick(getItem(position));
                     }
                 }
             });
@@ -103,7 +127,7 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
                     if (onItemClickListener != null) {
                         int position = getAdapterPosition();
                         if (position != RecyclerView.NO_POSITION) {
-                            showMoreMenu(v, articles.get(position));
+                            showMoreMenu(v, getItem(position));
                         }
                     }
                 });
@@ -120,7 +144,7 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
             }
             
             if (article.getPublishedAt() != null) {
-                dateTextView.setText(formatTimeAgo(article.getPublishedAt()));
+                dateTextView.setText(DateFormatter.formatRelative(article, System.currentTimeMillis()));
             }
             
             // Устанавливаем случайное количество комментариев для демонстрации
@@ -139,37 +163,15 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
             }
         }
         
-        private String formatTimeAgo(String dateString) {
-            try {
-                SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-                Date date = inputFormat.parse(dateString);
-                if (date != null) {
-                    long diff = System.currentTimeMillis() - date.getTime();
-                    long hours = diff / (1000 * 60 * 60);
-                    if (hours < 1) {
-                        long minutes = diff / (1000 * 60);
-                        return minutes + "m ago";
-                    } else if (hours < 24) {
-                        return hours + "h ago";
-                    } else {
-                        long days = hours / 24;
-                        return days + "d ago";
-                    }
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-            return dateString;
-        }
-        
         private void showMoreMenu(View view, Article article) {
             PopupMenu popupMenu = new PopupMenu(itemView.getContext(), view);
             popupMenu.getMenu().add(0, 1, 0, "Share");
             popupMenu.getMenu().add(0, 2, 0, "Open in browser");
             
-            // Показываем "Remove from favorites" если есть listener для избранного, иначе "Add to favorites"
-            boolean isFavorite = article.isFavorite();
-            String favoriteText = (onFavoriteClickListener != null && isFavorite) ? "Remove from favorites" : "Add to favorites";
+            // Показываем "Remove from favorites" для статьи из избранного, иначе "Add to favorites"
+            boolean isFavorite = isFavorite(article);
+            boolean canRemove = onFavoriteClickListener != null || favoritesIndex != null;
+            String favoriteText = (canRemove && isFavorite) ? "Remove from favorites" : "Add to favorites";
             popupMenu.getMenu().add(0, 3, 0, favoriteText);
             
             popupMenu.setOnMenuItemClickListener(item -> {
@@ -184,7 +186,7 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
                     if (onFavoriteClickListener != null) {
                         onFavoriteClickListener.onFavoriteClick(article, !isFavorite);
                     } else {
-                        addToFavorites(article);
+                        toggleFavorite(article, !isFavorite);
                     }
                 }
                 return true;
@@ -211,8 +213,12 @@ public class LatestAdapter extends RecyclerView.Adapter<LatestAdapter.LatestView
             }
         }
         
-        private void addToFavorites(Article article) {
-            android.widget.Toast.makeText(itemView.getContext(), "Added to favorites", android.widget.Toast.LENGTH_SHORT).show();
+        private void toggleFavorite(Article article, boolean favorite) {
+            if (favoritesIndex != null) {
+                favoritesIndex.setFavorite(article, favorite);
+            }
+            android.widget.Toast.makeText(itemView.getContext(), favorite ? "Added to favorites" : "Removed from favorites",
+                    android.widget.Toast.LENGTH_SHORT).show();
         }
     }
 }
@@ -9,24 +9,23 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.artem.finalproject.R;
 import com.artem.finalproject.models.Article;
+import com.artem.finalproject.repository.FavoritesIndex;
+import com.artem.finalproject.utils.DateFormatter;
 import com.bumptech.glide.Glide;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Адаптер для отображения списка новостей
  */
-public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder> {
-    private List<Article> articles;
+public class NewsAdapter extends ListAdapter<Article, NewsAdapter.NewsViewHolder> {
     private OnItemClickListener onItemClickListener;
     private OnFavoriteClickListener onFavoriteClickListener;
+    private FavoritesIndex favoritesIndex;
     private int lastPosition = -1;
     
     public interface OnItemClickListener {
@@ -38,18 +37,21 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
     }
     
     public NewsAdapter() {
-        this.articles = new ArrayList<>();
+        super(ArticleDiffCallback.CONFIG);
     }
     
+    /**
+     * Передать новый список: разница считается в фоне, перерисовываются только измененные строки
+     */
     public void setArticles(List<Article> articles) {
-        this.articles = articles;
-        notifyDataSetChanged();
+        submitList(articles != null ? new ArrayList<>(articles) : null);
     }
     
     public void addArticles(List<Article> newArticles) {
-        int startPosition = this.articles.size();
-        this.articles.addAll(newArticles);
-        notifyItemRangeInserted(startPosition, newArticles.size());
+        // Новые строки добавляются в конец, DiffUtil сообщит об этом как о вставке диапазона
+        List<Article> merged = new ArrayList<>(getCurrentList());
+        merged.addAll(newArticles);
+        submitList(merged);
     }
     
     public void setOnItemClickListener(OnItemClickListener listener) {
@@ -60,6 +62,17 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
         this.onFavoriteClickListener = listener;
     }
     
+    /**
+     * Индекс избранного: состояние статьи берется из памяти, а не из флага в модели
+     */
+    public void setFavoritesIndex(FavoritesIndex favoritesIndex) {
+        this.favoritesIndex = favoritesIndex;
+    }
+    
+    private boolean isFavorite(Article article) {
+        return favoritesIndex != null ? favoritesIndex.isFavorite(article.getUrl()) : article.isFavorite();
+    }
+    
     @NonNull
     @Override
     public NewsViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -70,13 +83,23 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
     
     @Override
     public void onBindViewHolder(@NonNull NewsViewHolder holder, int position) {
-        Article article = articles.get(position);
+        Article article = getItem(position);
         holder.bind(article);
         
         // Анимация появления
         setAnimation(holder.itemView, position);
     }
     
+    @Override
+    public void onBindViewHolder(@NonNull NewsViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ArticleDiffCallback.PAYLOAD_FAVORITE)) {
+            // Изменилось только избранное - не перезагружаем картинку и тексты
+            holder.updateFavoriteButton(isFavorite(getItem(position)));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+    
     private void setAnimation(View viewToAnimate, int position) {
         if (position > lastPosition) {
             Animation animation = AnimationUtils.loadAnimation(viewToAnimate.getContext(),
@@ -86,11 +109,6 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
         }
     }
     
-    @Override
-    public int getItemCount() {
-        return articles.size();
-    }
-    
     class NewsViewHolder extends RecyclerView.ViewHolder {
         private TextView titleTextView;
         private TextView descriptionTextView;
@@ -114,7 +132,7 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
                 if (onItemClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onItemClickListener.onItemClick(articles.get(position));
+                        onItemClickListener.onItemClick(getItem(position));
                     }
                 }
             });
@@ -123,9 +141,11 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
                 if (onFavoriteClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        Article article = articles.get(position);
-                        boolean newFavoriteState = !article.isFavorite();
-                        article.setFavorite(newFavoriteState);
+                        Article article = getItem(position);
+                        boolean newFavoriteState = !isFavorite(article);
+                        if (favoritesIndex == null) {
+                            article.setFavorite(newFavoriteState);
+                        }
                         updateFavoriteButton(newFavoriteState);
                         onFavoriteClickListener.onFavoriteClick(article, newFavoriteState);
                     }
@@ -145,7 +165,7 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
             }
             
             if (article.getPublishedAt() != null) {
-                dateTextView.setText(formatDate(article.getPublishedAt()));
+                dateTextView.setText(DateFormatter.formatAbsolute(article));
             }
             
             if (article.getSource() != null && article.getSource().getName() != null) {
@@ -165,7 +185,7 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
                 newsImageView.setVisibility(View.GONE);
             }
             
-            updateFavoriteButton(article.isFavorite());
+            updateFavoriteButton(isFavorite(article));
         }
         
         private void updateFavoriteButton(boolean isFavorite) {
@@ -175,19 +195,5 @@ public class NewsAdapter extends RecyclerView.Adapter<NewsAdapter.NewsViewHolder
                 favoriteButton.setImageResource(android.R.drawable.btn_star_big_off);
             }
         }
-        
-        private String formatDate(String dateString) {
-            try {
-                SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-                SimpleDateFormat outputFormat = new SimpleDateFormat("dd.MM.yyyy HH:mm", Locale.getDefault());
-                Date date = inputFormat.parse(dateString);
-                if (date != null) {
-                    return outputFormat.format(date);
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-            return dateString;
-        }
     }
 }
@@ -0,0 +1,81 @@
+package com.artem.finalproject.ui.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.artem.finalproject.utils.AppExecutors;
+import java.util.List;
+
+/**
+ * Адаптер подсказок поиска из истории запросов
+ */
+public class SuggestionAdapter extends ListAdapter<String, SuggestionAdapter.SuggestionViewHolder> {
+    private static final DiffUtil.ItemCallback<String> DIFF = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+    
+    private OnSuggestionClickListener onSuggestionClickListener;
+    
+    public interface OnSuggestionClickListener {
+        void onSuggestionClick(String query);
+    }
+    
+    public SuggestionAdapter() {
+        super(new AsyncDifferConfig.Builder<>(DIFF)
+                .setBackgroundThreadExecutor(AppExecutors.getInstance().compute())
+                .build());
+    }
+    
+    public void setSuggestions(List<String> suggestions) {
+        submitList(suggestions);
+    }
+    
+    public void setOnSuggestionClickListener(OnSuggestionClickListener listener) {
+        this.onSuggestionClickListener = listener;
+    }
+    
+    @NonNull
+    @Override
+    public SuggestionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(android.R.layout.simple_list_item_1, parent, false);
+        return new SuggestionViewHolder(view);
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull SuggestionViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+    
+    class SuggestionViewHolder extends RecyclerView.ViewHolder {
+        private final TextView textView;
+        
+        SuggestionViewHolder(@NonNull View itemView) {
+            super(itemView);
+            textView = itemView.findViewById(android.R.id.text1);
+        }
+        
+        void bind(String query) {
+            textView.setText(query);
+            itemView.setOnClickListener(v -> {
+                if (onSuggestionClickListener != null) {
+                    onSuggestionClickListener.onSuggestionClick(query);
+                }
+            });
+        }
+    }
+}
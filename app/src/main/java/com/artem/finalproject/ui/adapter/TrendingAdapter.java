@@ -5,22 +5,19 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.artem.finalproject.R;
 import com.artem.finalproject.models.Article;
+import com.artem.finalproject.utils.DateFormatter;
 import com.bumptech.glide.Glide;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 /**
  * Адаптер для горизонтального списка Trending новостей
  */
-public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.TrendingViewHolder> {
-    private List<Article> articles;
+public class TrendingAdapter extends ListAdapter<Article, TrendingAdapter.TrendingViewHolder> {
     private OnItemClickListener onItemClickListener;
     
     public interface OnItemClickListener {
@@ -28,12 +25,14 @@ public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.Trendi
     }
     
     public TrendingAdapter() {
-        this.articles = new ArrayList<>();
+        super(ArticleDiffCallback.CONFIG);
     }
     
+    /**
+     * Передать новый список: разница считается в фоне, перерисовываются только измененные строки
+     */
     public void setArticles(List<Article> articles) {
-        this.articles = articles;
-        notifyDataSetChanged();
+        submitList(articles != null ? new ArrayList<>(articles) : null);
     }
     
     public void setOnItemClickListener(OnItemClickListener listener) {
@@ -50,13 +49,16 @@ public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.Trendi
     
     @Override
     public void onBindViewHolder(@NonNull TrendingViewHolder holder, int position) {
-        Article article = articles.get(position);
+        Article article = getItem(position);
         holder.bind(article);
     }
     
     @Override
-    public int getItemCount() {
-        return articles.size();
+    public void onBindViewHolder(@NonNull TrendingViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // В карточке нет значка избранного, поэтому такое изменение не требует перерисовки
+        if (!payloads.contains(ArticleDiffCallback.PAYLOAD_FAVORITE)) {
+            onBindViewHolder(holder, position);
+        }
     }
     
     class TrendingViewHolder extends RecyclerView.ViewHolder {
@@ -84,7 +86,7 @@ public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.Trendi
                 if (onItemClickListener != null) {
                     int position = getAdapterPosition();
                     if (position != RecyclerView.NO_POSITION) {
-                        onItemClickListener.onItemClick(articles.get(position));
+                        onItemClickListener.onItemClick(getItem(position));
                     }
                 }
             });
@@ -110,7 +112,7 @@ public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.Trendi
             categoryTag.setBackgroundResource(R.drawable.tag_background);
             
             if (article.getPublishedAt() != null) {
-                dateTextView.setText(formatTimeAgo(article.getPublishedAt()));
+                dateTextView.setText(DateFormatter.formatRelative(article, System.currentTimeMillis()));
             }
             
             // Устанавливаем случайное количество комментариев для демонстрации
@@ -133,28 +135,5 @@ public class TrendingAdapter extends RecyclerView.Adapter<TrendingAdapter.Trendi
                         .into(newsImageView);
             }
         }
-        
-        private String formatTimeAgo(String dateString) {
-            try {
-                SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
-                Date date = inputFormat.parse(dateString);
-                if (date != null) {
-                    long diff = System.currentTimeMillis() - date.getTime();
-                    long hours = diff / (1000 * 60 * 60);
-                    if (hours < 1) {
-                        long minutes = diff / (1000 * 60);
-                        return minutes + "m ago";
-                    } else if (hours < 24) {
-                        return hours + "h ago";
-                    } else {
-                        long days = hours / 24;
-                        return days + "d ago";
-                    }
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
-            }
-            return dateString;
-        }
     }
 }
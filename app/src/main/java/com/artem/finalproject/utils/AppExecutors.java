@@ -0,0 +1,254 @@
+package com.artem.finalproject.utils;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Общие пулы потоков приложения вместо пулов в каждой активности.
+ * Отдельные ограниченные "полосы": база данных, сеть и вычисления.
+ * Внутри полосы задачи выполняются по приоритету, затем в порядке поступления.
+ * Очередь каждой полосы ограничена; что делать при переполнении, задает Overflow полосы.
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+    
+    // Чем меньше значение, тем раньше выполняется задача
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 5;
+    public static final int PRIORITY_LOW = 10;
+    
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    // Очереди длиннее этого значат, что полоса не успевает, а не всплеск запросов
+    private static final int DB_QUEUE_CAPACITY = 256;
+    private static final int NETWORK_QUEUE_CAPACITY = 32;
+    private static final int COMPUTE_QUEUE_CAPACITY = 64;
+    // Столько же, сколько одновременных запросов к хосту разрешает ApiClient
+    private static final int NETWORK_THREADS = 4;
+    // Задача, прождавшая в очереди дольше, попадает в лог вместе со статистикой полосы
+    private static final long SLOW_WAIT_MS = 500;
+    
+    /**
+     * Что делать с задачей, если очередь полосы заполнена
+     */
+    public enum Overflow {
+        // Задача отбрасывается, execute возвращает false
+        REJECT,
+        // Задача выполняется на потоке вызывающего
+        CALLER_RUNS
+    }
+    
+    private static volatile AppExecutors instance;
+    
+    private final PriorityLane diskIO;
+    private final PriorityLane network;
+    private final PriorityLane compute;
+    
+    private AppExecutors() {
+        int cpuThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        // В базу и сеть нельзя обращаться с главного потока, поэтому лишние задачи отбрасываются
+        diskIO = new PriorityLane("db", 2, DB_QUEUE_CAPACITY, Overflow.REJECT,
+                Process.THREAD_PRIORITY_BACKGROUND);
+        network = new PriorityLane("net", NETWORK_THREADS, NETWORK_QUEUE_CAPACITY, Overflow.REJECT,
+                Process.THREAD_PRIORITY_BACKGROUND);
+        // Расчет (например, DiffUtil) нельзя потерять - при переполнении он идет на потоке вызывающего
+        compute = new PriorityLane("cpu", cpuThreads, COMPUTE_QUEUE_CAPACITY, Overflow.CALLER_RUNS,
+                Process.THREAD_PRIORITY_BACKGROUND);
+    }
+    
+    public static AppExecutors getInstance() {
+        AppExecutors executors = instance;
+        if (executors == null) {
+            synchronized (AppExecutors.class) {
+                executors = instance;
+                if (executors == null) {
+                    executors = new AppExecutors();
+                    instance = executors;
+                }
+            }
+        }
+        return executors;
+    }
+    
+    /**
+     * Запросы к Room
+     */
+    public PriorityLane diskIO() {
+        return diskIO;
+    }
+    
+    /**
+     * Сетевые вызовы, которые выполняются синхронно (например, с разбором ответа по ходу чтения)
+     */
+    public PriorityLane network() {
+        return network;
+    }
+    
+    /**
+     * Разбор, ранжирование и прочая работа на CPU
+     */
+    public PriorityLane compute() {
+        return compute;
+    }
+    
+    /**
+     * Одна полоса: фиксированное число потоков и очередь с приоритетами
+     */
+    public static final class PriorityLane implements Executor {
+        private final String name;
+        private final int capacity;
+        private final Overflow overflow;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        
+        PriorityLane(String name, int threads, int capacity, Overflow overflow, int threadPriority) {
+            this.name = name;
+            this.capacity = capacity;
+            this.overflow = overflow;
+            executor = new ThreadPoolExecutor(
+                    threads,
+                    threads,
+                    KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<>(),
+                    new LaneThreadFactory(name, threadPriority));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            execute(PRIORITY_NORMAL, command);
+        }
+        
+        /**
+         * @return false, если очередь заполнена и задача отброшена (Overflow.REJECT)
+         */
+        public boolean execute(int priority, Runnable command) {
+            PrioritizedTask task = new PrioritizedTask(priority, sequence.incrementAndGet(), command);
+            if (executor.getQueue().size() < capacity) {
+                executor.execute(task);
+                return true;
+            }
+            rejected.incrementAndGet();
+            Log.w(TAG, "Queue is full, " + (overflow == Overflow.REJECT ? "dropping" : "running on caller")
+                    + " task with priority " + priority + ": " + this);
+            if (overflow == Overflow.CALLER_RUNS) {
+                task.run();
+                return true;
+            }
+            return false;
+        }
+        
+        public int getQueueDepth() {
+            return executor.getQueue().size();
+        }
+        
+        public int getActiveCount() {
+            return executor.getActiveCount();
+        }
+        
+        public long getCompletedCount() {
+            return completed.get();
+        }
+        
+        public long getRejectedCount() {
+            return rejected.get();
+        }
+        
+        public long getAverageWaitMillis() {
+            long count = completed.get();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+        }
+        
+        public long getMaxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+        
+        @Override
+        public String toString() {
+            return name + "{queue=" + getQueueDepth()
+                    + ", active=" + getActiveCount()
+                    + ", completed=" + getCompletedCount()
+                    + ", rejected=" + getRejectedCount()
+                    + ", avgWaitMs=" + getAverageWaitMillis()
+                    + ", maxWaitMs=" + getMaxWaitMillis() + "}";
+        }
+        
+        private void recordWait(long waitNanos) {
+            totalWaitNanos.addAndGet(waitNanos);
+            long max;
+            do {
+                max = maxWaitNanos.get();
+            } while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos));
+        }
+        
+        private final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+            private final int priority;
+            private final long order;
+            private final long enqueuedAt;
+            private final Runnable command;
+            
+            PrioritizedTask(int priority, long order, Runnable command) {
+                this.priority = priority;
+                this.order = order;
+                this.enqueuedAt = System.nanoTime();
+                this.command = command;
+            }
+            
+            @Override
+            public void run() {
+                long waitNanos = System.nanoTime() - enqueuedAt;
+                recordWait(waitNanos);
+                if (TimeUnit.NANOSECONDS.toMillis(waitNanos) > SLOW_WAIT_MS) {
+                    Log.w(TAG, "Task with priority " + priority + " waited "
+                            + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms: " + PriorityLane.this);
+                }
+                try {
+                    command.run();
+                } finally {
+                    completed.incrementAndGet();
+                }
+            }
+            
+            @Override
+            public int compareTo(PrioritizedTask other) {
+                if (priority != other.priority) {
+                    return Integer.compare(priority, other.priority);
+                }
+                return Long.compare(order, other.order);
+            }
+        }
+    }
+    
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final String name;
+        private final int threadPriority;
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        LaneThreadFactory(String name, int threadPriority) {
+            this.name = name;
+            this.threadPriority = threadPriority;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(threadPriority);
+                runnable.run();
+            }, "app-" + name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.artem.finalproject.utils;
+
+import com.artem.finalproject.models.Article;
+
+import java.util.TimeZone;
+
+/**
+ * Форматирование дат публикации для списков новостей.
+ * Дата ISO-8601 разбирается вручную один раз на статью (результат хранится в Article),
+ * готовые строки тоже кэшируются, поэтому повторный bind не создает объектов.
+ * Используется только из UI-потока.
+ */
+public final class DateFormatter {
+    public static final long NOT_PARSED = Long.MIN_VALUE;
+    public static final long INVALID = Long.MIN_VALUE + 1;
+    
+    private static final long MINUTE = 60 * 1000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    
+    private static final int UNIT_MINUTES = 0;
+    private static final int UNIT_HOURS = 1;
+    private static final int UNIT_DAYS = 2;
+    
+    // TimeZone.getDefault() каждый раз возвращает копию, поэтому держим свою
+    private static TimeZone timeZone = TimeZone.getDefault();
+    // Меняется при смене пояса: абсолютные даты, отформатированные в старом поясе, пересчитываются
+    private static int zoneVersion;
+    
+    private DateFormatter() {
+    }
+    
+    /**
+     * Сбросить закэшированный часовой пояс после смены пояса в системе (см. TimeZoneReceiver)
+     */
+    public static void refreshTimeZone() {
+        timeZone = TimeZone.getDefault();
+        zoneVersion++;
+    }
+    
+    /**
+     * Абсолютная дата "dd.MM.yyyy HH:mm" в локальном часовом поясе
+     */
+    public static String formatAbsolute(Article article) {
+        String cached = article.getAbsoluteDate();
+        if (cached != null && article.getAbsoluteDateZone() == zoneVersion) {
+            return cached;
+        }
+        long millis = article.getPublishedAtMillis();
+        String result;
+        if (millis == INVALID) {
+            result = article.getPublishedAt();
+        } else {
+            result = formatAbsolute(millis + timeZone.getOffset(millis));
+        }
+        article.setAbsoluteDate(result, zoneVersion);
+        return result;
+    }
+    
+    /**
+     * Относительная дата ("5m ago", "3h ago", "2d ago").
+     * Строка пересоздается только когда меняется отображаемое значение.
+     */
+    public static String formatRelative(Article article, long now) {
+        long millis = article.getPublishedAtMillis();
+        if (millis == INVALID) {
+            return article.getPublishedAt();
+        }
+        long diff = Math.max(0, now - millis);
+        int unit;
+        long value;
+        if (diff < HOUR) {
+            unit = UNIT_MINUTES;
+            value = diff / MINUTE;
+        } else if (diff < DAY) {
+            unit = UNIT_HOURS;
+            value = diff / HOUR;
+        } else {
+            unit = UNIT_DAYS;
+            value = diff / DAY;
+        }
+        
+        long bucket = value * 3 + unit;
+        String cached = article.getRelativeDate();
+        if (cached != null && article.getRelativeDateBucket() == bucket) {
+            return cached;
+        }
+        String result = value + (unit == UNIT_MINUTES ? "m ago" : unit == UNIT_HOURS ? "h ago" : "d ago");
+        article.setRelativeDate(result, bucket);
+        return result;
+    }
+    
+    /**
+     * Разбор ISO-8601 вида yyyy-MM-ddTHH:mm:ss[.SSS](Z|+hh:mm|-hh:mm) без SimpleDateFormat.
+     * @return миллисекунды UTC или INVALID
+     */
+    public static long parseIso8601(String value) {
+        if (value == null || value.length() < 19
+                || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return INVALID;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return INVALID;
+        }
+        
+        int pos = 19;
+        int millis = 0;
+        if (pos < value.length() && value.charAt(pos) == '.') {
+            pos++;
+            int scale = 100;
+            while (pos < value.length() && Character.isDigit(value.charAt(pos))) {
+                millis += (value.charAt(pos) - '0') * scale;
+                scale /= 10;
+                pos++;
+            }
+        }
+        
+        long offsetMillis = 0;
+        if (pos < value.length()) {
+            char sign = value.charAt(pos);
+            if (sign == 'Z' || sign == 'z') {
+                pos++;
+            } else if (sign == '+' || sign == '-') {
+                int offsetHours = digits(value, pos + 1, 2);
+                int minutesPos = pos + 3;
+                if (minutesPos < value.length() && value.charAt(minutesPos) == ':') {
+                    minutesPos++;
+                }
+                int offsetMinutes = minutesPos < value.length() ? digits(value, minutesPos, 2) : 0;
+                if (offsetHours < 0 || offsetMinutes < 0) {
+                    return INVALID;
+                }
+                offsetMillis = (offsetHours * HOUR + offsetMinutes * MINUTE) * (sign == '-' ? -1 : 1);
+                pos = minutesPos + (minutesPos < value.length() ? 2 : 0);
+            } else {
+                return INVALID;
+            }
+        }
+        if (pos != value.length()) {
+            return INVALID;
+        }
+        
+        long days = daysFromCivil(year, month, day);
+        return days * DAY + hour * HOUR + minute * MINUTE + second * 1000L + millis - offsetMillis;
+    }
+    
+    private static String formatAbsolute(long localMillis) {
+        long days = Math.floorDiv(localMillis, DAY);
+        long millisOfDay = localMillis - days * DAY;
+        int hour = (int) (millisOfDay / HOUR);
+        int minute = (int) (millisOfDay % HOUR / MINUTE);
+        
+        // Обратное преобразование дней в дату (алгоритм Howard Hinnant)
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        
+        char[] out = new char[16];
+        put2(out, 0, day);
+        out[2] = '.';
+        put2(out, 3, month);
+        out[5] = '.';
+        put2(out, 6, year / 100);
+        put2(out, 8, year % 100);
+        out[10] = ' ';
+        put2(out, 11, hour);
+        out[13] = ':';
+        put2(out, 14, minute);
+        return new String(out);
+    }
+    
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    private static int digits(String value, int start, int count) {
+        if (start + count > value.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
+    private static void put2(char[] out, int offset, int value) {
+        out[offset] = (char) ('0' + value / 10 % 10);
+        out[offset + 1] = (char) ('0' + value % 10);
+    }
+}
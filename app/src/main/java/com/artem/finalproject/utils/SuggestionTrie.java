@@ -0,0 +1,179 @@
+package com.artem.finalproject.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Сжатое префиксное дерево (radix trie) поисковых запросов для подсказок.
+ * Ранг запроса - частота × давность: count * 2^(-(now - lastUsedAt) / HALF_LIFE).
+ * В логарифме это ln(count) + lastUsedAt * ln2 / HALF_LIFE, порядок не зависит от now,
+ * поэтому каждый узел заранее хранит лучшие MAX_SUGGESTIONS запросов своего поддерева,
+ * и подсказка по префиксу - это спуск по дереву без обхода поддерева.
+ * Все методы синхронизированы: строится в фоне, читается с главного потока.
+ */
+public class SuggestionTrie {
+    public static final int MAX_SUGGESTIONS = 8;
+    
+    // За неделю вес запроса падает вдвое
+    private static final double HALF_LIFE_MS = 7 * 24 * 60 * 60 * 1000.0;
+    
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+    
+    /**
+     * Учесть запрос count раз с последним использованием в lastUsedAt
+     */
+    public synchronized void add(String query, int count, long lastUsedAt) {
+        String key = normalize(query);
+        if (key.isEmpty() || count <= 0) {
+            return;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, query.trim());
+            entries.put(key, entry);
+        }
+        entry.count += count;
+        if (lastUsedAt >= entry.lastUsedAt) {
+            entry.lastUsedAt = lastUsedAt;
+            // Показываем запрос в том написании, в каком его вводили последним
+            entry.text = query.trim();
+        }
+        entry.rank = Math.log(entry.count) + entry.lastUsedAt * Math.log(2) / HALF_LIFE_MS;
+        
+        // Ранг только растет, поэтому достаточно обновить узлы на пути к ключу
+        for (Node node : insertPath(key)) {
+            node.offer(entry);
+        }
+    }
+    
+    /**
+     * До limit лучших запросов, начинающихся с prefix (без учета регистра)
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length() && i + common < key.length()) {
+                return Collections.emptyList();
+            }
+            node = child;
+            i += common;
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, node.top.size()));
+        for (Entry entry : node.top) {
+            if (result.size() >= limit) {
+                break;
+            }
+            // Сам введенный текст подсказывать незачем
+            if (!entry.key.equals(key)) {
+                result.add(entry.text);
+            }
+        }
+        return result;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        root.children.clear();
+        root.top.clear();
+    }
+    
+    /**
+     * Узлы от корня до узла ключа; недостающие создаются, ребра при необходимости делятся
+     */
+    private List<Node> insertPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                path.add(child);
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Ключ расходится с ребром посередине: вставляем промежуточный узел
+                Node middle = new Node(child.label.substring(0, common));
+                middle.top.addAll(child.top);
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        return path;
+    }
+    
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static String normalize(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Entry {
+        final String key;
+        String text;
+        int count;
+        long lastUsedAt = Long.MIN_VALUE;
+        double rank;
+        
+        Entry(String key, String text) {
+            this.key = key;
+            this.text = text;
+        }
+    }
+    
+    private static final class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>();
+        // Лучшие запросы поддерева по убыванию ранга
+        final List<Entry> top = new ArrayList<>(MAX_SUGGESTIONS + 1);
+        
+        Node(String label) {
+            this.label = label;
+        }
+        
+        void offer(Entry entry) {
+            top.remove(entry);
+            int position = 0;
+            while (position < top.size() && top.get(position).rank >= entry.rank) {
+                position++;
+            }
+            if (position < MAX_SUGGESTIONS) {
+                top.add(position, entry);
+                if (top.size() > MAX_SUGGESTIONS) {
+                    top.remove(top.size() - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.artem.finalproject.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Смена часового пояса в системе: DateFormatter перечитывает пояс,
+ * абсолютные даты пересчитываются при следующем показе.
+ * Приходит на главный поток, как и остальные вызовы DateFormatter.
+ */
+public class TimeZoneReceiver extends BroadcastReceiver {
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction())) {
+            DateFormatter.refreshTimeZone();
+        }
+    }
+}
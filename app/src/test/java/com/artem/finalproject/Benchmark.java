@@ -0,0 +1,8 @@
+package com.artem.finalproject;
+
+/**
+ * Категория JUnit для замеров времени и аллокаций.
+ * В обычный прогон тестов они не входят, запуск: ./gradlew testDebugUnitTest -Pbenchmarks
+ */
+public interface Benchmark {
+}
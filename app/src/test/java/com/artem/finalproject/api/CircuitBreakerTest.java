@@ -0,0 +1,178 @@
+package com.artem.finalproject.api;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.CacheControl;
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import static org.junit.Assert.*;
+
+/**
+ * Пробный запрос после паузы должен дойти до API, даже если в HTTP-кэше есть свежий ответ.
+ * Пауза цепи в тестах нулевая, поэтому проба начинается сразу после открытия.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class CircuitBreakerTest {
+    private static final Request REQUEST = new Request.Builder().url("https://newsapi.org/v2/top-headlines").build();
+    
+    private final CircuitBreaker breaker = new CircuitBreaker(0);
+    private final FakeChain chain = new FakeChain();
+    
+    @Test
+    public void probe_bypassesHttpCacheAndClosesCircuit() throws IOException {
+        trip();
+        chain.cached = true;
+        chain.networkCode = 200;
+        
+        breaker.intercept(chain);
+        assertTrue("Probe must skip the cache", chain.lastRequest().cacheControl().noCache());
+        
+        // Цепь закрыта: запросы снова идут как есть
+        breaker.intercept(chain);
+        assertFalse(chain.lastRequest().cacheControl().noCache());
+        assertFalse(breaker.isOpen());
+    }
+    
+    @Test
+    public void probeServedFromCache_isRetriedByNextRequest() throws IOException {
+        trip();
+        chain.cached = true;
+        chain.networkCode = 200;
+        
+        // Без сети запрос приходит только-из-кэша: проба не состоялась
+        Request offline = REQUEST.newBuilder().cacheControl(CacheControl.FORCE_CACHE).build();
+        Response response = breaker.intercept(chain.with(offline));
+        assertNull(response.networkResponse());
+        
+        // Следующий запрос снова пробный, а не навсегда из кэша
+        breaker.intercept(chain.with(REQUEST));
+        assertTrue(chain.lastRequest().cacheControl().noCache());
+        breaker.intercept(chain);
+        assertFalse(chain.lastRequest().cacheControl().noCache());
+    }
+    
+    @Test
+    public void failedProbe_keepsCircuitOpen() throws IOException {
+        trip();
+        chain.cached = true;
+        
+        breaker.intercept(chain);
+        assertTrue(chain.lastRequest().cacheControl().noCache());
+        
+        // Пауза нулевая, поэтому после неудачной пробы следующий запрос - снова проба
+        breaker.intercept(chain);
+        assertTrue(chain.lastRequest().cacheControl().noCache());
+    }
+    
+    /**
+     * Три сбоя API подряд открывают цепь
+     */
+    private void trip() throws IOException {
+        chain.cached = false;
+        chain.networkCode = 503;
+        for (int i = 0; i < 3; i++) {
+            breaker.intercept(chain);
+        }
+    }
+    
+    /**
+     * Цепочка OkHttp с HTTP-кэшем: при cached = true отвечает из кэша,
+     * если запрос не требует сети (no-cache)
+     */
+    private static final class FakeChain implements Interceptor.Chain {
+        private final List<Request> seen = new ArrayList<>();
+        private Request request = REQUEST;
+        boolean cached;
+        int networkCode = 200;
+        
+        FakeChain with(Request request) {
+            this.request = request;
+            return this;
+        }
+        
+        Request lastRequest() {
+            return seen.get(seen.size() - 1);
+        }
+        
+        @Override
+        public Request request() {
+            return request;
+        }
+        
+        @Override
+        public Response proceed(Request request) {
+            seen.add(request);
+            boolean fromCache = cached && !request.cacheControl().noCache();
+            Response.Builder builder = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .body(ResponseBody.create("{}", MediaType.get("application/json")));
+            if (fromCache) {
+                return builder.code(200).message("OK").build();
+            }
+            Response network = new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(networkCode)
+                    .message("Network")
+                    .build();
+            return builder.code(networkCode).message("Network").networkResponse(network).build();
+        }
+        
+        @Override
+        public Connection connection() {
+            return null;
+        }
+        
+        @Override
+        public Call call() {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public int connectTimeoutMillis() {
+            return 0;
+        }
+        
+        @Override
+        public Interceptor.Chain withConnectTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+        
+        @Override
+        public int readTimeoutMillis() {
+            return 0;
+        }
+        
+        @Override
+        public Interceptor.Chain withReadTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+        
+        @Override
+        public int writeTimeoutMillis() {
+            return 0;
+        }
+        
+        @Override
+        public Interceptor.Chain withWriteTimeout(int timeout, TimeUnit unit) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.artem.finalproject.api;
+
+import com.artem.finalproject.Benchmark;
+import com.artem.finalproject.models.Article;
+import com.artem.finalproject.models.NewsResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Сравнение рефлексивного разбора Gson и потоковых TypeAdapter'ов
+ * на записанном ответе NewsAPI, размноженном до 20/50/100 статей.
+ */
+public class NewsResponseParsingBenchmark {
+    private static final int[] ARTICLE_COUNTS = {20, 50, 100};
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+    
+    @Test
+    public void streamingAdapter_matchesReflectiveDecode() throws IOException {
+        String payload = buildPayload(50);
+        NewsResponse reflective = new Gson().fromJson(payload, NewsResponse.class);
+        NewsResponse streaming = ApiClient.getGson().fromJson(payload, NewsResponse.class);
+        
+        assertEquals(reflective.getStatus(), streaming.getStatus());
+        assertEquals(reflective.getTotalResults(), streaming.getTotalResults());
+        assertEquals(reflective.getArticles().size(), streaming.getArticles().size());
+        for (int i = 0; i < reflective.getArticles().size(); i++) {
+            Article expected = reflective.getArticles().get(i);
+            Article actual = streaming.getArticles().get(i);
+            assertEquals(expected.getUrl(), actual.getUrl());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getAuthor(), actual.getAuthor());
+            assertEquals(expected.getPublishedAt(), actual.getPublishedAt());
+            assertEquals(expected.getContent(), actual.getContent());
+            assertEquals(expected.getSource().getName(), actual.getSource().getName());
+            // id источника не показывается и потоковым адаптером пропускается
+            assertNull(actual.getSource().getId());
+        }
+    }
+    
+    @Test
+    public void streamingAdapter_emitsArticlesInOrder() throws IOException {
+        String payload = buildPayload(20);
+        List<String> emitted = new ArrayList<>();
+        NewsResponse response = NewsResponseTypeAdapter.readWith(
+                (article, index) -> {
+                    assertEquals(emitted.size(), index);
+                    emitted.add(article.getUrl());
+                },
+                () -> ApiClient.getGson().fromJson(payload, NewsResponse.class));
+        
+        assertEquals(20, emitted.size());
+        for (int i = 0; i < emitted.size(); i++) {
+            assertEquals(response.getArticles().get(i).getUrl(), emitted.get(i));
+        }
+        
+        // Вне readWith слушатель больше не вызывается
+        ApiClient.getGson().fromJson(payload, NewsResponse.class);
+        assertEquals(20, emitted.size());
+    }
+    
+    @Test
+    @Category(Benchmark.class)
+    public void benchmark_reflectiveVsStreaming() throws IOException {
+        Gson reflectiveGson = new Gson();
+        Gson streamingGson = ApiClient.getGson();
+        
+        for (int count : ARTICLE_COUNTS) {
+            String payload = buildPayload(count);
+            
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                reflectiveGson.fromJson(payload, NewsResponse.class);
+                streamingGson.fromJson(payload, NewsResponse.class);
+            }
+            
+            long reflectiveNs = measure(reflectiveGson, payload);
+            long streamingNs = measure(streamingGson, payload);
+            
+            System.out.printf("articles=%d reflective=%.1fus streaming=%.1fus speedup=%.2fx%n",
+                    count,
+                    reflectiveNs / 1000.0,
+                    streamingNs / 1000.0,
+                    (double) reflectiveNs / streamingNs);
+        }
+    }
+    
+    private static long measure(Gson gson, String payload) {
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += gson.fromJson(payload, NewsResponse.class).getArticles().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(sink > 0);
+        return elapsed / MEASURED_ITERATIONS;
+    }
+    
+    /**
+     * Размножает записанный ответ до нужного числа статей с уникальными url
+     */
+    private static String buildPayload(int articleCount) throws IOException {
+        JsonObject recorded = readRecordedResponse();
+        JsonArray source = recorded.getAsJsonArray("articles");
+        JsonArray articles = new JsonArray();
+        for (int i = 0; i < articleCount; i++) {
+            JsonObject article = source.get(i % source.size()).getAsJsonObject().deepCopy();
+            article.addProperty("url", article.get("url").getAsString() + "?n=" + i);
+            articles.add(article);
+        }
+        recorded.add("articles", articles);
+        return recorded.toString();
+    }
+    
+    private static JsonObject readRecordedResponse() throws IOException {
+        InputStream stream = NewsResponseParsingBenchmark.class.getClassLoader()
+                .getResourceAsStream("newsapi/top-headlines.json");
+        assertNotNull("recorded payload is missing", stream);
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.artem.finalproject.database;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.artem.finalproject.database.dao.ArticleFtsDao;
+import com.artem.finalproject.database.entity.ArticleFts;
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.database.entity.FavoriteArticle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Триггеры article_fts: индекс следует за вставкой, заменой, обновлением и удалением
+ * строк в cached_articles и favorite_articles.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class ArticleFtsTest {
+    private static final String TEST_DB = "fts-test";
+    
+    private Context context;
+    private AppDatabase db;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    @Test
+    public void cachedInsert_isSearchable() {
+        db.cachedArticleDao().upsertAll(Collections.singletonList(cached("https://a", "Солнечная энергия")));
+        
+        List<ArticleFtsDao.Candidate> matches = db.articleFtsDao().searchCandidates("солнечн*");
+        assertEquals(1, matches.size());
+        assertEquals("https://a", matches.get(0).url);
+        assertFalse(matches.get(0).isFavorite());
+        assertNotNull(matches.get(0).matchInfo);
+        
+        List<ArticleFts> rows = db.articleFtsDao().getByRowIds(Collections.singletonList(matches.get(0).rowId));
+        assertEquals("Солнечная энергия", rows.get(0).getTitle());
+    }
+    
+    @Test
+    public void searchCandidates_returnsEveryMatch() {
+        List<CachedArticle> rows = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            rows.add(cached("https://example.com/" + i, "Election update " + i));
+        }
+        db.cachedArticleDao().upsertAll(rows);
+        
+        // Отсечение до ранжирования потеряло бы часть статей
+        assertEquals(700, db.articleFtsDao().searchCandidates("election*").size());
+    }
+    
+    @Test
+    public void cachedReplace_doesNotLeaveStaleRows() {
+        db.cachedArticleDao().upsertAll(Collections.singletonList(cached("https://a", "Old title")));
+        db.cachedArticleDao().upsertAll(Collections.singletonList(cached("https://a", "New title")));
+        
+        assertEquals(1, db.articleFtsDao().count());
+        assertTrue(db.articleFtsDao().searchCandidates("old").isEmpty());
+        assertEquals(1, db.articleFtsDao().searchCandidates("new").size());
+    }
+    
+    @Test
+    public void cachedDelete_removesFromIndex() {
+        db.cachedArticleDao().upsertAll(Collections.singletonList(cached("https://a", "Markets rally")));
+        db.cachedArticleDao().deleteByQuery("feed");
+        
+        assertEquals(0, db.articleFtsDao().count());
+    }
+    
+    @Test
+    public void sameUrlInTwoFeeds_keepsBothRows() {
+        db.cachedArticleDao().replaceQuery("top", Collections.singletonList(cached("https://a", "Space launch", "top")));
+        db.cachedArticleDao().replaceQuery("science", Collections.singletonList(cached("https://a", "Space launch", "science")));
+        
+        assertEquals(2, db.cachedArticleDao().countByUrl("https://a"));
+        assertEquals(1, db.cachedArticleDao().getPageAfter("top", Long.MAX_VALUE, "", 10).size());
+        assertEquals(1, db.cachedArticleDao().getPageAfter("science", Long.MAX_VALUE, "", 10).size());
+        assertEquals(2, db.articleFtsDao().count());
+        
+        // Обновление одной ленты не трогает строку другой
+        db.cachedArticleDao().replaceQuery("top", Collections.emptyList());
+        assertNull(db.cachedArticleDao().get("top", "https://a"));
+        assertNotNull(db.cachedArticleDao().get("science", "https://a"));
+        assertEquals(1, db.articleFtsDao().count());
+    }
+    
+    @Test
+    public void favorites_areIndexedSeparately() {
+        db.cachedArticleDao().upsertAll(Collections.singletonList(cached("https://a", "Space launch")));
+        FavoriteArticle favorite = new FavoriteArticle();
+        favorite.setUrl("https://a");
+        favorite.setTitle("Space launch");
+        db.favoriteArticleDao().insert(favorite);
+        
+        List<ArticleFtsDao.Candidate> matches = db.articleFtsDao().searchCandidates("space");
+        assertEquals(2, matches.size());
+        
+        FavoriteArticle saved = db.favoriteArticleDao().getByUrl("https://a");
+        db.favoriteArticleDao().deleteById(saved.getId());
+        matches = db.articleFtsDao().searchCandidates("space");
+        assertEquals(1, matches.size());
+        assertFalse(matches.get(0).isFavorite());
+    }
+    
+    @Test
+    public void favoriteInsert_ignoresDuplicateUrl() {
+        FavoriteArticle first = new FavoriteArticle();
+        first.setUrl("https://a");
+        first.setTitle("Space launch");
+        FavoriteArticle second = new FavoriteArticle();
+        second.setUrl("https://a");
+        second.setTitle("Space launch");
+        
+        assertTrue(db.favoriteArticleDao().insert(first) > 0);
+        assertEquals(-1, db.favoriteArticleDao().insert(second));
+        assertEquals(1, db.favoriteArticleDao().getAll().size());
+        assertEquals(1, db.articleFtsDao().count());
+    }
+    
+    private static CachedArticle cached(String url, String title) {
+        return cached(url, title, "feed");
+    }
+    
+    private static CachedArticle cached(String url, String title, String query) {
+        CachedArticle article = new CachedArticle();
+        article.setUrl(url);
+        article.setTitle(title);
+        article.setQuery(query);
+        return article;
+    }
+}
@@ -0,0 +1,156 @@
+package com.artem.finalproject.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.artem.finalproject.Benchmark;
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.database.entity.FavoriteArticle;
+import com.artem.finalproject.database.entity.NotificationItem;
+import com.artem.finalproject.database.entity.SearchHistory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Время запросов DAO на заполненной базе с индексом и без него.
+ * Что запросы вообще идут по индексу, проверяет DaoQueryPlanTest.
+ * По умолчанию 10 000 строк; -Ddao.benchmark.rows=100000 для большой базы.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@Category(Benchmark.class)
+public class DaoIndexBenchmark {
+    private static final int ROWS = Integer.getInteger("dao.benchmark.rows", 10_000);
+    private static final int QUERIES = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final long BASE_TIME = 1_760_000_000_000L;
+    
+    private AppDatabase db;
+    private SupportSQLiteDatabase sqlite;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        sqlite = db.getOpenHelper().getWritableDatabase();
+        fill();
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void cachedPage_withAndWithoutIndex() {
+        Runnable query = () -> assertEquals(PAGE_SIZE,
+                db.cachedArticleDao().getPageAfter("q7", Long.MAX_VALUE, "", PAGE_SIZE).size());
+        compare("cached_articles.getPageAfter", "index_cached_articles_query_cachedAt_url", query);
+    }
+    
+    @Test
+    public void favoriteByUrl_withAndWithoutIndex() {
+        Runnable query = () -> assertNotNull(db.favoriteArticleDao().getByUrl("https://example.com/fav/42"));
+        compare("favorite_articles.getByUrl", "index_favorite_articles_url", query);
+    }
+    
+    @Test
+    public void unreadNotifications_withAndWithoutIndex() {
+        Runnable query = () -> assertFalse(db.notificationDao().getUnread().isEmpty());
+        compare("notifications.getUnread", "index_notifications_isRead_createdAt", query);
+    }
+    
+    @Test
+    public void recentSearches_withAndWithoutIndex() {
+        Runnable query = () -> assertEquals(10, db.searchHistoryDao().getRecent(10).size());
+        compare("search_history.getRecent", "index_search_history_searchedAt", query);
+    }
+    
+    private void fill() {
+        db.runInTransaction(() -> {
+            List<CachedArticle> cached = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                CachedArticle article = new CachedArticle();
+                article.setUrl("https://example.com/cached/" + i);
+                article.setTitle("Title " + i);
+                article.setQuery("q" + (i % 50));
+                article.setCachedAt(BASE_TIME + i);
+                cached.add(article);
+            }
+            db.cachedArticleDao().upsertAll(cached);
+            
+            for (int i = 0; i < ROWS; i++) {
+                FavoriteArticle favorite = new FavoriteArticle();
+                favorite.setUrl("https://example.com/fav/" + i);
+                favorite.setTitle("Favorite " + i);
+                favorite.setSavedAt(BASE_TIME + i);
+                db.favoriteArticleDao().insert(favorite);
+                
+                NotificationItem notification = new NotificationItem();
+                notification.setTitle("Notification " + i);
+                notification.setCreatedAt(BASE_TIME + i);
+                // Непрочитанных немного, как и в реальном приложении
+                notification.setRead(i % 20 != 0);
+                db.notificationDao().insert(notification);
+                
+                SearchHistory history = new SearchHistory();
+                history.setQuery("query " + i);
+                history.setSearchedAt(BASE_TIME + i);
+                db.searchHistoryDao().insert(history);
+            }
+        });
+    }
+    
+    /**
+     * Среднее время запроса с индексом и без него
+     */
+    private void compare(String name, String index, Runnable query) {
+        long indexed = measure(query);
+        String ddl = indexDdl(index);
+        sqlite.execSQL("DROP INDEX `" + index + "`");
+        try {
+            long scanned = measure(query);
+            System.out.println(String.format(Locale.US,
+                    "%s, %d rows: indexed %.3f ms, without index %.3f ms",
+                    name, ROWS, indexed / 1e6, scanned / 1e6));
+        } finally {
+            sqlite.execSQL(ddl);
+        }
+    }
+    
+    private long measure(Runnable query) {
+        // Прогрев: первая компиляция запроса и загрузка страниц в кэш SQLite
+        query.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - start) / QUERIES;
+    }
+    
+    private String indexDdl(String index) {
+        try (Cursor cursor = sqlite.query("SELECT sql FROM sqlite_master WHERE type = 'index' AND name = ?",
+                new Object[]{index})) {
+            assertTrue("Index not found: " + index, cursor.moveToFirst());
+            return cursor.getString(0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.artem.finalproject.database;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.artem.finalproject.database.dao.SearchHistoryDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Планы запросов DAO (EXPLAIN QUERY PLAN): каждый запрос должен идти по индексу,
+ * а не полным сканированием таблицы. Время с индексом и без него замеряет DaoIndexBenchmark.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class DaoQueryPlanTest {
+    private AppDatabase db;
+    private SupportSQLiteDatabase sqlite;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        sqlite = db.getOpenHelper().getWritableDatabase();
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void cachedPage_usesQueryCachedAtIndex() {
+        String sql = "SELECT * FROM cached_articles WHERE query = ? "
+                + "AND (cachedAt < ? OR (cachedAt = ? AND url < ?)) "
+                + "ORDER BY cachedAt DESC, url DESC LIMIT ?";
+        Object[] args = {"q7", Long.MAX_VALUE, Long.MAX_VALUE, "", 20};
+        assertUsesIndex(sql, args, "index_cached_articles_query_cachedAt_url");
+        assertNoTempSort(sql, args);
+    }
+    
+    @Test
+    public void cachedDeleteOld_usesCachedAtIndex() {
+        assertUsesIndex("DELETE FROM cached_articles WHERE cachedAt < ?", new Object[]{1L},
+                "index_cached_articles_cachedAt");
+    }
+    
+    @Test
+    public void favoriteByUrl_usesUrlIndex() {
+        assertUsesIndex("SELECT * FROM favorite_articles WHERE url = ?", new Object[]{"https://example.com"},
+                "index_favorite_articles_url");
+    }
+    
+    @Test
+    public void unreadNotifications_useIsReadIndex() {
+        String sql = "SELECT * FROM notifications WHERE isRead = 0 ORDER BY createdAt DESC";
+        assertUsesIndex(sql, new Object[0], "index_notifications_isRead_createdAt");
+        assertNoTempSort(sql, new Object[0]);
+    }
+    
+    @Test
+    public void recentSearches_useSearchedAtIndex() {
+        String sql = "SELECT * FROM search_history ORDER BY searchedAt DESC LIMIT ?";
+        assertUsesIndex(sql, new Object[]{10}, "index_search_history_searchedAt");
+        assertNoTempSort(sql, new Object[]{10});
+    }
+    
+    @Test
+    public void searchesPerDay_readOnlyRecentRange() {
+        // Статистика профиля берет из истории только последние дни, а не всю таблицу.
+        // SQLite нумерует именованные параметры по первому вхождению: :utcOffset, затем :since
+        assertUsesIndex(SearchHistoryDao.SEARCHES_PER_DAY, new Object[]{3 * 60 * 60 * 1000L, 1L},
+                "index_search_history_searchedAt");
+    }
+    
+    private void assertUsesIndex(String sql, Object[] args, String index) {
+        String plan = plan(sql, args);
+        assertTrue("Expected " + index + " in plan:\n" + plan, plan.contains(index));
+        assertFalse("Full table scan in plan:\n" + plan, plan.matches("(?s).*SCAN (TABLE )?\\w+\\s*(\\n|$).*"));
+    }
+    
+    private void assertNoTempSort(String sql, Object[] args) {
+        String plan = plan(sql, args);
+        assertFalse("Extra sort step in plan:\n" + plan, plan.contains("USE TEMP B-TREE"));
+    }
+    
+    private String plan(String sql, Object[] args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = sqlite.query("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
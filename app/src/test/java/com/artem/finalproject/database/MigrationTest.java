@@ -0,0 +1,151 @@
+package com.artem.finalproject.database;
+
+import android.content.Context;
+
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.database.entity.FavoriteArticle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Обновление базы со старых версий: данные избранного и кэша должны пережить миграции,
+ * а схема после каждой миграции - совпасть с выгруженной Room в app/schemas.
+ * Старые версии создаются MigrationTestHelper из тех же JSON-схем.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = Migrations.ALL[Migrations.ALL.length - 1].endVersion;
+    
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+    
+    private Context context;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    @After
+    public void tearDown() {
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    /**
+     * Каждая миграция по отдельности приводит схему к выгруженной для следующей версии
+     */
+    @Test
+    public void eachMigration_matchesExportedSchema() {
+        for (Migration migration : Migrations.ALL) {
+            context.deleteDatabase(TEST_DB);
+            helper.createDatabase(TEST_DB, migration.startVersion).close();
+            helper.runMigrationsAndValidate(TEST_DB, migration.endVersion, true, migration).close();
+        }
+    }
+    
+    @Test
+    public void migrateFromV1_matchesLatestSchema() {
+        helper.createDatabase(TEST_DB, 1).close();
+        helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, Migrations.ALL).close();
+    }
+    
+    @Test
+    public void migrateFromV1_keepsFavoritesAndCache() {
+        SupportSQLiteDatabase v1 = helper.createDatabase(TEST_DB, 1);
+        v1.execSQL("INSERT INTO favorite_articles (title, url, savedAt) "
+                + "VALUES ('Saved', 'https://example.com/a', 1000)");
+        v1.execSQL("INSERT INTO cached_articles (url, title, query, cachedAt) "
+                + "VALUES ('https://example.com/b', 'Cached', 'feed', 2000)");
+        v1.execSQL("INSERT INTO search_history (query, searchedAt, resultCount) VALUES ('android', 3000, 20)");
+        v1.close();
+        
+        AppDatabase db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+        try {
+            FavoriteArticle favorite = db.favoriteArticleDao().getByUrl("https://example.com/a");
+            assertNotNull(favorite);
+            assertEquals("Saved", favorite.getTitle());
+            
+            CachedArticle cached = db.cachedArticleDao().get("feed", "https://example.com/b");
+            assertNotNull(cached);
+            assertEquals("feed", cached.getQuery());
+            // Старые строки кэша считаются прочитанными при кэшировании, размер - байты полей
+            assertEquals(2000, cached.getLastAccessedAt());
+            assertEquals("https://example.com/b".length() + "Cached".length() + "feed".length(),
+                    cached.getSizeBytes());
+            
+            List<?> history = db.searchHistoryDao().getRecent(10);
+            assertEquals(1, history.size());
+            
+            // Старые статьи попадают в полнотекстовый индекс при миграции
+            assertEquals(2, db.articleFtsDao().count());
+            assertEquals(1, db.articleFtsDao().searchCandidates("saved*").size());
+        } finally {
+            db.close();
+        }
+    }
+    
+    @Test
+    public void migrateFromV1_removesDuplicateFavorites() {
+        SupportSQLiteDatabase v1 = helper.createDatabase(TEST_DB, 1);
+        v1.execSQL("INSERT INTO favorite_articles (title, url, savedAt) VALUES ('First', 'https://example.com/a', 1000)");
+        v1.execSQL("INSERT INTO favorite_articles (title, url, savedAt) VALUES ('Copy', 'https://example.com/a', 2000)");
+        v1.execSQL("INSERT INTO favorite_articles (title, url, savedAt) VALUES ('Other', 'https://example.com/b', 3000)");
+        v1.close();
+        
+        AppDatabase db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+        try {
+            assertEquals(2, db.favoriteArticleDao().getAll().size());
+            assertEquals("First", db.favoriteArticleDao().getByUrl("https://example.com/a").getTitle());
+            assertEquals(2, db.articleFtsDao().count());
+        } finally {
+            db.close();
+        }
+    }
+    
+    @Test
+    public void migrations_coverEveryVersion() {
+        int version = 1;
+        for (Migration migration : Migrations.ALL) {
+            assertEquals(version, migration.startVersion);
+            version = migration.endVersion;
+        }
+        // Последняя миграция должна вести к текущей версии схемы
+        AppDatabase db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+        try {
+            assertEquals(version, db.getOpenHelper().getWritableDatabase().getVersion());
+        } finally {
+            db.close();
+        }
+    }
+    
+    @Test
+    public void database_usesWriteAheadLog() {
+        AppDatabase db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+        try {
+            SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+            assertTrue(sqlite.isWriteAheadLoggingEnabled());
+        } finally {
+            db.close();
+        }
+    }
+}
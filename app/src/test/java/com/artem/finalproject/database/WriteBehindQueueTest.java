@@ -0,0 +1,175 @@
+package com.artem.finalproject.database;
+
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.artem.finalproject.database.entity.CachedArticle;
+import com.artem.finalproject.database.entity.SearchHistory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Очередь отложенной записи: записи с одним ключом схлопываются,
+ * пачка пишется одной транзакцией по окончании окна или по flush().
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WriteBehindQueueTest {
+    private static final String TEST_DB = "write-behind-test";
+    
+    private Context context;
+    private AppDatabase db;
+    private WriteBehindQueue queue;
+    
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        db = AppDatabase.builder(context, TEST_DB).allowMainThreadQueries().build();
+        queue = new WriteBehindQueue(db);
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+        context.deleteDatabase(TEST_DB);
+    }
+    
+    @Test
+    public void sameKey_keepsOnlyLastWrite() throws InterruptedException {
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch written = new CountDownLatch(3);
+        
+        queue.enqueue("favorite:a", database -> applied.add("a1"), written::countDown);
+        queue.enqueue(database -> applied.add("b"));
+        queue.enqueue("favorite:a", database -> applied.add("a2"), written::countDown);
+        queue.enqueue("favorite:a", database -> applied.add("a3"), written::countDown);
+        queue.flush();
+        
+        // Колбэки замененных записей тоже вызываются
+        await(written);
+        assertEquals(Arrays.asList("b", "a3"), applied);
+    }
+    
+    @Test
+    public void batch_isWrittenAfterWindow() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            SearchHistory history = new SearchHistory();
+            history.setQuery("query " + i);
+            queue.enqueue(database -> database.searchHistoryDao().insert(history));
+        }
+        queue.enqueue(null, database -> { }, written::countDown);
+        assertTrue(db.searchHistoryDao().getRecent(20).isEmpty());
+        
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(WriteBehindQueue.WINDOW_MS));
+        await(written);
+        assertEquals(10, db.searchHistoryDao().getRecent(20).size());
+    }
+    
+    @Test
+    public void failedWrite_doesNotDropBatch() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        SearchHistory history = new SearchHistory();
+        history.setQuery("kept");
+        queue.enqueue(database -> {
+            throw new IllegalStateException("boom");
+        });
+        queue.enqueue(null, database -> database.searchHistoryDao().insert(history), written::countDown);
+        queue.flush();
+        
+        await(written);
+        assertEquals(1, db.searchHistoryDao().getRecent(10).size());
+    }
+    
+    @Test
+    public void failedDaoWrite_keepsOtherWritesOfBatch() throws InterruptedException {
+        SearchHistory existing = new SearchHistory();
+        existing.setId(1);
+        existing.setQuery("existing");
+        db.searchHistoryDao().insert(existing);
+        
+        // Вставка с занятым id нарушает PRIMARY KEY внутри вложенной транзакции DAO
+        SearchHistory duplicate = new SearchHistory();
+        duplicate.setId(1);
+        duplicate.setQuery("duplicate");
+        SearchHistory kept = new SearchHistory();
+        kept.setQuery("kept");
+        CountDownLatch written = new CountDownLatch(2);
+        queue.enqueue(null, database -> database.searchHistoryDao().insert(kept), written::countDown);
+        queue.enqueue(null, database -> database.searchHistoryDao().insert(duplicate), written::countDown);
+        queue.flush();
+        
+        await(written);
+        List<SearchHistory> history = db.searchHistoryDao().getRecent(10);
+        assertEquals(2, history.size());
+        List<String> queries = new ArrayList<>();
+        for (SearchHistory row : history) {
+            queries.add(row.getQuery());
+        }
+        assertTrue(queries.contains("kept"));
+        assertTrue(queries.contains("existing"));
+    }
+    
+    @Test
+    public void flushNow_pendingFeedReplaceIsVisibleToNextPageRead() {
+        db.cachedArticleDao().upsertAll(feed("old", 20, 1000));
+        List<CachedArticle> fresh = feed("new", 5, 5000);
+        queue.enqueue("cache:feed", database -> database.cachedArticleDao().replaceQuery("feed", fresh));
+        
+        // Курсор ленты уже стоит после последней статьи из сети: дальше должно быть пусто,
+        // а не старые статьи, которые замена еще не успела удалить
+        CachedArticle last = fresh.get(fresh.size() - 1);
+        assertEquals(20, db.cachedArticleDao()
+                .getPageAfter("feed", last.getCachedAt(), last.getUrl(), 20).size());
+        
+        queue.flushNow();
+        assertTrue(db.cachedArticleDao()
+                .getPageAfter("feed", last.getCachedAt(), last.getUrl(), 20).isEmpty());
+        assertEquals(5, db.cachedArticleDao().getPageAfter("feed", Long.MAX_VALUE, "", 20).size());
+    }
+    
+    private static List<CachedArticle> feed(String prefix, int count, long firstCachedAt) {
+        List<CachedArticle> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CachedArticle article = new CachedArticle();
+            article.setUrl("https://example.com/" + prefix + "/" + i);
+            article.setTitle("Title " + i);
+            article.setQuery("feed");
+            article.setCachedAt(firstCachedAt - i);
+            rows.add(article);
+        }
+        return rows;
+    }
+    
+    /**
+     * Колбэки приходят на главный поток, поэтому прокручиваем его, пока ждем фоновую запись
+     */
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (latch.getCount() > 0 && System.nanoTime() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            latch.await(10, TimeUnit.MILLISECONDS);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals("Writes were not committed in time", 0, latch.getCount());
+    }
+}
@@ -0,0 +1,117 @@
+package com.artem.finalproject.repository;
+
+import com.artem.finalproject.database.dao.ArticleFtsDao;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Разбор поискового ввода в MATCH-выражение и ранжирование BM25 по matchinfo
+ */
+public class ArticleSearchTest {
+    // url, urlToImage, publishedAt, title, description, sourceName
+    private static final double[] WEIGHTS = {0, 0, 0, 3.0, 1.0, 0.5};
+    private static final int COLUMNS = WEIGHTS.length;
+    private static final int TITLE = 3;
+    private static final int DESCRIPTION = 4;
+    
+    @Test
+    public void buildMatch_makesPrefixTerms() {
+        assertEquals("bitcoin* etf*", ArticleSearch.buildMatch("  Bitcoin ETF "));
+        assertEquals("новости* спорта*", ArticleSearch.buildMatch("Новости спорта"));
+    }
+    
+    @Test
+    public void buildMatch_dropsOperatorsAndPunctuation() {
+        assertEquals("apple* or* google*", ArticleSearch.buildMatch("apple OR \"google\"*"));
+        assertEquals("ai*", ArticleSearch.buildMatch("c++ -ai"));
+        assertNull(ArticleSearch.buildMatch("a"));
+        assertNull(ArticleSearch.buildMatch("  \"*- "));
+        assertNull(ArticleSearch.buildMatch(null));
+    }
+    
+    @Test
+    public void bm25_titleHitOutranksDescriptionHit() {
+        double inTitle = ArticleSearch.bm25(matchInfo(1000, 10, TITLE, 1, 50), WEIGHTS);
+        double inDescription = ArticleSearch.bm25(matchInfo(1000, 10, DESCRIPTION, 1, 50), WEIGHTS);
+        assertTrue(inTitle > inDescription);
+    }
+    
+    @Test
+    public void bm25_rareTermOutranksCommonTerm() {
+        double rare = ArticleSearch.bm25(matchInfo(1000, 10, TITLE, 1, 5), WEIGHTS);
+        double common = ArticleSearch.bm25(matchInfo(1000, 10, TITLE, 1, 900), WEIGHTS);
+        assertTrue(rare > common);
+        assertTrue(common > 0);
+    }
+    
+    @Test
+    public void bm25_shortColumnOutranksLongColumn() {
+        double shortTitle = ArticleSearch.bm25(matchInfo(1000, 4, TITLE, 1, 50), WEIGHTS);
+        double longTitle = ArticleSearch.bm25(matchInfo(1000, 40, TITLE, 1, 50), WEIGHTS);
+        assertTrue(shortTitle > longTitle);
+    }
+    
+    @Test
+    public void rank_ordersAllCandidatesBeforeLimit() {
+        // Лучшее совпадение последним в выдаче индекса
+        List<ArticleFtsDao.Candidate> ranked = ArticleSearch.rank(Arrays.asList(
+                candidate(1, "https://a", matchInfo(1000, 10, DESCRIPTION, 1, 50)),
+                candidate(2, "https://b", matchInfo(1000, 10, DESCRIPTION, 1, 50)),
+                candidate(3, "https://c", matchInfo(1000, 4, TITLE, 1, 5))));
+        
+        List<Long> top = ArticleSearch.selectTop(ranked, 1, new HashSet<>());
+        assertEquals(Arrays.asList(3L), top);
+    }
+    
+    @Test
+    public void selectTop_skipsDuplicateUrlsAndMarksFavorites() {
+        List<ArticleFtsDao.Candidate> ranked = Arrays.asList(
+                candidate(1, "https://a", null),
+                candidate(2, "https://b", null),
+                candidate(-7, "https://a", null));
+        Set<String> favorites = new HashSet<>();
+        
+        assertEquals(Arrays.asList(1L, 2L), ArticleSearch.selectTop(ranked, 10, favorites));
+        // Избранная копия ниже в выдаче, но статья все равно отмечается
+        assertTrue(favorites.contains("https://a"));
+        assertFalse(favorites.contains("https://b"));
+    }
+    
+    private static ArticleFtsDao.Candidate candidate(long rowId, String url, byte[] matchInfo) {
+        ArticleFtsDao.Candidate candidate = new ArticleFtsDao.Candidate();
+        candidate.rowId = rowId;
+        candidate.url = url;
+        candidate.matchInfo = matchInfo;
+        return candidate;
+    }
+    
+    /**
+     * matchinfo('pcnalx') для одной фразы с попаданием только в колонку column
+     */
+    private static byte[] matchInfo(int rows, int length, int column, int hits, int docsWithHits) {
+        int ints = 3 + 2 * COLUMNS + 3 * COLUMNS;
+        ByteBuffer buffer = ByteBuffer.allocate(ints * 4).order(ByteOrder.nativeOrder());
+        buffer.putInt(1).putInt(COLUMNS).putInt(rows);
+        for (int j = 0; j < COLUMNS; j++) {
+            buffer.putInt(10);
+        }
+        for (int j = 0; j < COLUMNS; j++) {
+            buffer.putInt(j == column ? length : 10);
+        }
+        for (int j = 0; j < COLUMNS; j++) {
+            buffer.putInt(j == column ? hits : 0);
+            buffer.putInt(j == column ? hits * docsWithHits : 0);
+            buffer.putInt(j == column ? docsWithHits : 0);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,133 @@
+package com.artem.finalproject.repository;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.artem.finalproject.database.AppDatabase;
+import com.artem.finalproject.database.entity.CachedArticle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Вытеснение из cached_articles: сначала давно не читанные, пределы по строкам и байтам
+ * соблюдаются для каждой ленты и для всего кэша.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class CacheGovernorTest {
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    
+    private AppDatabase db;
+    private long now;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        now = System.currentTimeMillis();
+    }
+    
+    @After
+    public void tearDown() {
+        db.close();
+    }
+    
+    @Test
+    public void perQueryRowLimit_evictsLeastRecentlyRead() {
+        fill("a", 120, 0);
+        fill("b", 5, 0);
+        
+        trim(new CacheGovernor.Limits(100, Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, DAY));
+        
+        assertEquals(100, db.cachedArticleDao().getPageAfter("a", Long.MAX_VALUE, "", 1000).size());
+        assertEquals(5, db.cachedArticleDao().getPageAfter("b", Long.MAX_VALUE, "", 1000).size());
+        // Первые 20 статей ленты a читали раньше всех
+        assertNull(db.cachedArticleDao().get("a", "https://example.com/a/19"));
+        assertNotNull(db.cachedArticleDao().get("a", "https://example.com/a/20"));
+    }
+    
+    @Test
+    public void globalByteLimit_evictsAcrossQueries() {
+        fill("a", 60, 0);
+        fill("b", 60, 60);
+        long rowSize = db.cachedArticleDao().get("a", "https://example.com/a/0").getSizeBytes();
+        assertTrue(rowSize > 0);
+        
+        trim(new CacheGovernor.Limits(Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, rowSize * 80, DAY));
+        
+        assertTrue(db.cachedArticleDao().getTotalStats().totalBytes <= rowSize * 80);
+        // Лента a читалась раньше, поэтому вытесняется первой
+        assertTrue(db.cachedArticleDao().getPageAfter("a", Long.MAX_VALUE, "", 1000).size() < 60);
+        assertEquals(60, db.cachedArticleDao().getPageAfter("b", Long.MAX_VALUE, "", 1000).size());
+    }
+    
+    @Test
+    public void idleArticles_areEvicted() {
+        fill("a", 10, 0);
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            urls.add("https://example.com/a/" + i);
+        }
+        db.cachedArticleDao().touch("a", urls, now - 2 * DAY);
+        db.cachedArticleDao().touch("a", Collections.singletonList("https://example.com/a/3"), now);
+        
+        trim(new CacheGovernor.Limits(Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, DAY));
+        
+        // Остается только статья, которую читали недавно
+        assertEquals(1, db.cachedArticleDao().getTotalStats().rowCount);
+        assertNotNull(db.cachedArticleDao().get("a", "https://example.com/a/3"));
+    }
+    
+    @Test
+    public void excess_coversRowsAndBytes() {
+        assertEquals(0, CacheGovernor.excess(0, 0, 10, 100));
+        assertEquals(5, CacheGovernor.excess(15, 150, 10, 1000));
+        // 20 строк по 10 байт при пределе 150 байт: убрать 5 строк
+        assertEquals(5, CacheGovernor.excess(20, 200, 100, 150));
+        assertEquals(0, CacheGovernor.excess(10, 100, 10, 100));
+    }
+    
+    /**
+     * Статьи ленты query: статья i прочитана в now - (count + offset - i) минут
+     */
+    private void fill(String query, int count, int offset) {
+        List<CachedArticle> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CachedArticle article = new CachedArticle();
+            article.setUrl("https://example.com/" + query + "/" + i);
+            article.setTitle("Title " + i);
+            article.setQuery(query);
+            article.setCachedAt(now - i);
+            article.setLastAccessedAt(now - (200 - offset - i) * 60_000L);
+            article.setSizeBytes(CacheGovernor.sizeOf(article));
+            rows.add(article);
+        }
+        db.cachedArticleDao().upsertAll(rows);
+    }
+    
+    private void trim(CacheGovernor.Limits limits) {
+        CacheGovernor governor = new CacheGovernor(db, limits);
+        int batches = 0;
+        int deleted;
+        while ((deleted = governor.trimOnce()) > 0) {
+            assertTrue(deleted <= CacheGovernor.BATCH_SIZE);
+            batches++;
+        }
+        assertTrue(batches > 0);
+    }
+}
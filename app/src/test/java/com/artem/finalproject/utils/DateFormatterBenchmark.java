@@ -0,0 +1,106 @@
+package com.artem.finalproject.utils;
+
+import com.artem.finalproject.Benchmark;
+import com.artem.finalproject.models.Article;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Замер аллокаций DateFormatter на один bind:
+ * старый путь (два SimpleDateFormat на строку) против кэшированного форматирования.
+ * Корректность разбора и форматирования проверяет DateFormatterTest.
+ */
+public class DateFormatterBenchmark {
+    private static final int ROWS = 50;
+    private static final int BIND_PASSES = 200;
+    
+    @Test
+    @Category(Benchmark.class)
+    public void benchmark_allocationsPerBind() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        
+        List<Article> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(article(String.format(Locale.ROOT, "2026-10-%02dT%02d:15:00Z", 1 + i % 28, i % 24)));
+        }
+        long now = System.currentTimeMillis();
+        
+        // Прогрев обоих путей
+        int sink = 0;
+        for (int pass = 0; pass < 20; pass++) {
+            for (Article row : rows) {
+                sink += legacyBind(row.getPublishedAt(), now).length();
+                sink += DateFormatter.formatRelative(row, now).length();
+                sink += DateFormatter.formatAbsolute(row).length();
+            }
+        }
+        
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int pass = 0; pass < BIND_PASSES; pass++) {
+            for (Article row : rows) {
+                sink += legacyBind(row.getPublishedAt(), now).length();
+            }
+        }
+        long legacyBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+        
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int pass = 0; pass < BIND_PASSES; pass++) {
+            for (Article row : rows) {
+                sink += DateFormatter.formatRelative(row, now).length();
+                sink += DateFormatter.formatAbsolute(row).length();
+            }
+        }
+        long cachedBytes = threadBean.getThreadAllocatedBytes(threadId) - before;
+        
+        int binds = ROWS * BIND_PASSES;
+        System.out.printf("bytes/bind legacy=%d cached=%d%n", legacyBytes / binds, cachedBytes / binds);
+        assertTrue(sink > 0);
+        assertTrue(cachedBytes < legacyBytes);
+    }
+    
+    /**
+     * Старый код из адаптеров: новый SimpleDateFormat на каждую строку
+     */
+    private static String legacyBind(String dateString, long now) {
+        try {
+            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.getDefault());
+            Date date = inputFormat.parse(dateString);
+            if (date != null) {
+                long diff = now - date.getTime();
+                long hours = diff / (1000 * 60 * 60);
+                if (hours < 1) {
+                    return diff / (1000 * 60) + "m ago";
+                } else if (hours < 24) {
+                    return hours + "h ago";
+                } else {
+                    return hours / 24 + "d ago";
+                }
+            }
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+        return dateString;
+    }
+    
+    private static Article article(String publishedAt) {
+        Article article = new Article();
+        article.setPublishedAt(publishedAt);
+        return article;
+    }
+}
@@ -0,0 +1,97 @@
+package com.artem.finalproject.utils;
+
+import com.artem.finalproject.models.Article;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Разбор ISO-8601 и форматирование дат публикации в DateFormatter
+ */
+public class DateFormatterTest {
+    
+    @Test
+    public void parseIso8601_matchesJavaTime() {
+        String[] samples = {
+                "2026-10-17T14:32:00Z",
+                "2026-02-28T23:59:59Z",
+                "2024-02-29T00:00:00Z",
+                "1999-12-31T23:59:59.5Z",
+                "2026-10-17T14:32:00.123Z",
+                "2026-10-17T16:32:00+02:00",
+                "2026-10-17T09:02:00-05:30"
+        };
+        for (String sample : samples) {
+            assertEquals(sample, Instant.parse(normalize(sample)).toEpochMilli(),
+                    DateFormatter.parseIso8601(sample));
+        }
+    }
+    
+    @Test
+    public void parseIso8601_rejectsGarbage() {
+        assertEquals(DateFormatter.INVALID, DateFormatter.parseIso8601(null));
+        assertEquals(DateFormatter.INVALID, DateFormatter.parseIso8601(""));
+        assertEquals(DateFormatter.INVALID, DateFormatter.parseIso8601("17.10.2026 14:32"));
+        assertEquals(DateFormatter.INVALID, DateFormatter.parseIso8601("2026-13-17T14:32:00Z"));
+        assertEquals(DateFormatter.INVALID, DateFormatter.parseIso8601("2026-10-17T14:32:00Zjunk"));
+    }
+    
+    @Test
+    public void formatRelative_usesLargestUnit() {
+        long published = DateFormatter.parseIso8601("2026-10-17T12:00:00Z");
+        assertEquals("0m ago", DateFormatter.formatRelative(article("2026-10-17T12:00:00Z"), published + 30_000));
+        assertEquals("45m ago", DateFormatter.formatRelative(article("2026-10-17T12:00:00Z"), published + 45 * 60_000));
+        assertEquals("5h ago", DateFormatter.formatRelative(article("2026-10-17T12:00:00Z"), published + 5 * 3_600_000));
+        assertEquals("3d ago", DateFormatter.formatRelative(article("2026-10-17T12:00:00Z"), published + 3 * 86_400_000L));
+    }
+    
+    @Test
+    public void formatRelative_reusesStringWhileValueIsUnchanged() {
+        Article article = article("2026-10-17T12:00:00Z");
+        long published = article.getPublishedAtMillis();
+        String first = DateFormatter.formatRelative(article, published + 5 * 60_000);
+        String second = DateFormatter.formatRelative(article, published + 5 * 60_000 + 10_000);
+        assertSame(first, second);
+        assertEquals("6m ago", DateFormatter.formatRelative(article, published + 6 * 60_000));
+    }
+    
+    @Test
+    public void invalidDate_fallsBackToRawString() {
+        Article article = article("yesterday");
+        assertEquals("yesterday", DateFormatter.formatAbsolute(article));
+        assertEquals("yesterday", DateFormatter.formatRelative(article, System.currentTimeMillis()));
+    }
+    
+    @Test
+    public void refreshTimeZone_reformatsCachedAbsoluteDate() {
+        TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            DateFormatter.refreshTimeZone();
+            Article article = article("2026-10-17T12:00:00Z");
+            assertEquals("17.10.2026 12:00", DateFormatter.formatAbsolute(article));
+            
+            TimeZone.setDefault(TimeZone.getTimeZone("GMT+03:00"));
+            DateFormatter.refreshTimeZone();
+            assertEquals("17.10.2026 15:00", DateFormatter.formatAbsolute(article));
+        } finally {
+            TimeZone.setDefault(original);
+            DateFormatter.refreshTimeZone();
+        }
+    }
+    
+    private static Article article(String publishedAt) {
+        Article article = new Article();
+        article.setPublishedAt(publishedAt);
+        return article;
+    }
+    
+    private static String normalize(String value) {
+        return Instant.from(OffsetDateTime.parse(value)).toString();
+    }
+}
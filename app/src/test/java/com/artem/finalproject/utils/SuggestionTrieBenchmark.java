@@ -0,0 +1,103 @@
+package com.artem.finalproject.utils;
+
+import com.artem.finalproject.Benchmark;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверка ранжирования подсказок и замер времени подсказки на одно нажатие
+ * для истории из десятков тысяч запросов.
+ */
+public class SuggestionTrieBenchmark {
+    private static final long NOW = 1_760_000_000_000L;
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final int HISTORY_SIZE = 50_000;
+    private static final int KEYSTROKES = 100_000;
+    
+    @Test
+    public void suggest_matchesPrefixIgnoringCase() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("Bitcoin", 1, NOW);
+        trie.add("biology", 1, NOW - DAY);
+        trie.add("apple", 1, NOW);
+        
+        assertEquals(Arrays.asList("Bitcoin", "biology"), trie.suggest("BI", 5));
+        assertEquals(Collections.singletonList("Bitcoin"), trie.suggest("bitc", 5));
+        assertTrue(trie.suggest("bx", 5).isEmpty());
+        assertTrue(trie.suggest("bitcoins", 5).isEmpty());
+    }
+    
+    @Test
+    public void suggest_ranksByFrequencyAndRecency() {
+        SuggestionTrie trie = new SuggestionTrie();
+        // Часто, но месяц назад
+        trie.add("sport results", 10, NOW - 30 * DAY);
+        // Реже, но вчера
+        trie.add("sport news", 3, NOW - DAY);
+        // Так же часто, но позавчера
+        trie.add("sport transfers", 3, NOW - 2 * DAY);
+        
+        assertEquals(Arrays.asList("sport news", "sport transfers", "sport results"), trie.suggest("sp", 5));
+    }
+    
+    @Test
+    public void add_isIncrementalAndMergesCase() {
+        SuggestionTrie trie = new SuggestionTrie();
+        trie.add("tesla", 1, NOW - DAY);
+        trie.add("tennis", 2, NOW - DAY);
+        assertEquals(Arrays.asList("tennis", "tesla"), trie.suggest("te", 5));
+        
+        trie.add("Tesla", 1, NOW);
+        trie.add("TESLA", 1, NOW);
+        assertEquals(2, trie.size());
+        assertEquals(Arrays.asList("TESLA", "tennis"), trie.suggest("te", 5));
+    }
+    
+    @Test
+    public void suggest_skipsExactQueryAndHonorsLimit() {
+        SuggestionTrie trie = new SuggestionTrie();
+        for (int i = 0; i < 20; i++) {
+            trie.add("news " + i, 1, NOW + i);
+        }
+        trie.add("news", 100, NOW + 100);
+        
+        List<String> suggestions = trie.suggest("news", 3);
+        assertEquals(Arrays.asList("news 19", "news 18", "news 17"), suggestions);
+    }
+    
+    @Test
+    @Category(Benchmark.class)
+    public void suggest_perKeystroke() {
+        SuggestionTrie trie = new SuggestionTrie();
+        long buildStart = System.nanoTime();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            trie.add("query " + (i * 7919 % HISTORY_SIZE), 1 + i % 5, NOW - (i % 90) * DAY);
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+        
+        String[] prefixes = {"q", "qu", "que", "quer", "query", "query ", "query 1", "query 12", "query 123"};
+        int found = 0;
+        // Прогрев JIT
+        for (int i = 0; i < KEYSTROKES; i++) {
+            found += trie.suggest(prefixes[i % prefixes.length], 5).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < KEYSTROKES; i++) {
+            found += trie.suggest(prefixes[i % prefixes.length], 5).size();
+        }
+        long perKeystroke = (System.nanoTime() - start) / KEYSTROKES;
+        
+        System.out.println("SuggestionTrie: " + HISTORY_SIZE + " queries built in "
+                + buildNanos / 1_000_000 + " ms, suggest " + perKeystroke + " ns per keystroke");
+        assertTrue(found > 0);
+        // Подсказка не обходит поддерево, поэтому укладывается в микросекунды
+        assertTrue("suggest took " + perKeystroke + " ns", perKeystroke < 100_000);
+    }
+}